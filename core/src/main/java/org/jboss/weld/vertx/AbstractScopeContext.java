@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.Map;
+
+import javax.enterprise.context.spi.AlterableContext;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+
+/**
+ * The common base of the custom scope contexts. A subclass only decides where the map of instances is stored.
+ *
+ * @author Martin Kouba
+ */
+abstract class AbstractScopeContext implements AlterableContext {
+
+    @Override
+    public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext) {
+        Map<Contextual<?>, ContextualInstance<?>> instances = getInstances(creationalContext != null);
+        if (instances == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        ContextualInstance<T> instance = (ContextualInstance<T>) instances.get(contextual);
+        if (instance == null) {
+            if (creationalContext == null) {
+                return null;
+            }
+            instance = new ContextualInstance<>(contextual.create(creationalContext), creationalContext, contextual);
+            instances.put(contextual, instance);
+        }
+        return instance.value;
+    }
+
+    @Override
+    public <T> T get(Contextual<T> contextual) {
+        return get(contextual, null);
+    }
+
+    @Override
+    public void destroy(Contextual<?> contextual) {
+        Map<Contextual<?>, ContextualInstance<?>> instances = getInstances(false);
+        if (instances != null) {
+            ContextualInstance<?> instance = instances.remove(contextual);
+            if (instance != null) {
+                instance.destroy();
+            }
+        }
+    }
+
+    /**
+     *
+     * @param create
+     * @return the instances of the current context, <code>null</code> if there are no instances and <code>create</code> is <code>false</code>
+     * @throws javax.enterprise.context.ContextNotActiveException If the context is not active
+     */
+    protected abstract Map<Contextual<?>, ContextualInstance<?>> getInstances(boolean create);
+
+    /**
+     * Destroys and removes all the given instances.
+     *
+     * @param instances
+     */
+    static void destroyAll(Map<Contextual<?>, ContextualInstance<?>> instances) {
+        for (ContextualInstance<?> instance : instances.values()) {
+            instance.destroy();
+        }
+        instances.clear();
+    }
+
+    static class ContextualInstance<T> {
+
+        private final T value;
+
+        private final CreationalContext<T> creationalContext;
+
+        private final Contextual<T> contextual;
+
+        ContextualInstance(T value, CreationalContext<T> creationalContext, Contextual<T> contextual) {
+            this.value = value;
+            this.creationalContext = creationalContext;
+            this.contextual = contextual;
+        }
+
+        void destroy() {
+            contextual.destroy(value, creationalContext);
+        }
+
+    }
+
+}
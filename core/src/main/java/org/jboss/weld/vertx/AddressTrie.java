@@ -0,0 +1,161 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A trie of address patterns. An address consists of segments separated by dots. The <code>*</code> segment of a pattern matches exactly one segment of an
+ * address, e.g. <code>orders.*.created</code> matches <code>orders.acme.created</code> but not <code>orders.created</code>.
+ * <p>
+ * The matching cost depends on the number of segments of the address, not on the number of patterns. If multiple patterns match an address, the most specific
+ * one wins, i.e. a literal segment takes precedence over a wildcard at the same position.
+ * <p>
+ * The trie is not thread-safe but may be safely read from multiple threads once built.
+ *
+ * @author Martin Kouba
+ * @param <T>
+ */
+class AddressTrie<T> {
+
+    static final String WILDCARD = "*";
+
+    private static final String SEPARATOR = ".";
+
+    // The number of segments is capped
+    private static final int MAX_SEGMENTS = 63;
+
+    private final Node<T> root;
+
+    // Bit n is set if a pattern with n segments exists
+    private long segmentCounts;
+
+    AddressTrie() {
+        this.root = new Node<>();
+    }
+
+    /**
+     *
+     * @param address
+     * @return <code>true</code> if the given address contains a wildcard segment
+     */
+    static boolean isPattern(String address) {
+        for (String segment : address.split("\\.")) {
+            if (WILDCARD.equals(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param pattern
+     * @param value
+     * @throws IllegalStateException If a value is already associated with the given pattern
+     */
+    void put(String pattern, T value) {
+        Node<T> node = root;
+        String[] segments = pattern.split("\\.", -1);
+        segmentCounts |= 1L << Math.min(segments.length, MAX_SEGMENTS);
+        for (String segment : segments) {
+            if (WILDCARD.equals(segment)) {
+                if (node.wildcard == null) {
+                    node.wildcard = new Node<>();
+                }
+                node = node.wildcard;
+            } else {
+                Node<T> child = node.children.get(segment);
+                if (child == null) {
+                    child = new Node<>();
+                    node.children.put(segment, child);
+                }
+                node = child;
+            }
+        }
+        if (node.value != null) {
+            throw new IllegalStateException("Pattern already registered: " + pattern);
+        }
+        node.value = value;
+    }
+
+    /**
+     *
+     * @param address
+     * @return the value associated with the most specific pattern matching the given address, or <code>null</code> if no such pattern exists
+     */
+    T match(String address) {
+        if (!mayMatch(address)) {
+            return null;
+        }
+        return match(root, address, 0);
+    }
+
+    /**
+     * Does not allocate, i.e. may be used to quickly filter out the addresses which cannot match, e.g. reply addresses.
+     *
+     * @param address
+     * @return <code>false</code> if no pattern has the same number of segments as the given address
+     */
+    boolean mayMatch(String address) {
+        if (root.isEmpty()) {
+            return false;
+        }
+        int segments = 1;
+        for (int i = 0; i < address.length() && segments < MAX_SEGMENTS; i++) {
+            if (address.charAt(i) == '.') {
+                segments++;
+            }
+        }
+        return (segmentCounts & (1L << segments)) != 0;
+    }
+
+    private T match(Node<T> node, String address, int start) {
+        int end = address.indexOf(SEPARATOR, start);
+        boolean last = end == -1;
+        if (last) {
+            end = address.length();
+        }
+        Node<T> child = node.children.isEmpty() ? null : node.children.get(address.substring(start, end));
+        if (child != null) {
+            T value = last ? child.value : match(child, address, end + 1);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (node.wildcard != null) {
+            return last ? node.wildcard.value : match(node.wildcard, address, end + 1);
+        }
+        return null;
+    }
+
+    private static class Node<T> {
+
+        private final Map<String, Node<T>> children = new HashMap<>();
+
+        private Node<T> wildcard;
+
+        private T value;
+
+        boolean isEmpty() {
+            return children.isEmpty() && wildcard == null;
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+/**
+ * Converts a message body to the target type. All the beans with this type are used to convert the body for {@link VertxEvent#getMessageBody(Class)}. The
+ * target type is derived from the bean type, e.g. a bean with the type <code>BodyConverter&lt;Order&gt;</code> converts bodies to <code>Order</code>.
+ * <p>
+ * A custom converter takes precedence over the built-in converters.
+ *
+ * @author Martin Kouba
+ * @param <T> the target type
+ */
+public interface BodyConverter<T> {
+
+    /**
+     *
+     * @param body the message body, never <code>null</code>
+     * @return the converted body
+     */
+    T convert(Object body);
+
+}
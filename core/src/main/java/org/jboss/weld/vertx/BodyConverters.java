@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * The table of {@link BodyConverter}s per target type. The table is built when the {@link WeldVerticle} is started and never modified afterwards, i.e. no
+ * synchronization is needed.
+ *
+ * @author Martin Kouba
+ */
+class BodyConverters {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BodyConverters.class.getName());
+
+    private final Map<Class<?>, BodyConverter<?>> converters;
+
+    /**
+     *
+     * @param beanManager
+     * @param converterBeans
+     * @return the built-in converters together with the converter beans
+     */
+    static BodyConverters create(BeanManager beanManager, Collection<Bean<?>> converterBeans) {
+        Map<Class<?>, BodyConverter<?>> converters = new HashMap<>();
+        converters.put(String.class, body -> body.toString());
+        converters.put(Buffer.class, body -> Buffer.buffer(body.toString()));
+        converters.put(JsonObject.class, BodyConverters::toJsonObject);
+        converters.put(JsonArray.class, BodyConverters::toJsonArray);
+        converters.put(Integer.class, body -> body instanceof Number ? ((Number) body).intValue() : Integer.valueOf(body.toString()));
+        converters.put(Long.class, body -> body instanceof Number ? ((Number) body).longValue() : Long.valueOf(body.toString()));
+        converters.put(Double.class, body -> body instanceof Number ? ((Number) body).doubleValue() : Double.valueOf(body.toString()));
+        converters.put(Boolean.class, body -> Boolean.valueOf(body.toString()));
+        for (Bean<?> bean : converterBeans) {
+            Type converterType = getConverterType(bean);
+            Class<?> targetType = getTargetType(converterType);
+            if (targetType == null) {
+                LOGGER.warn("Unable to determine the target type of the body converter - the converter is ignored: {0}", bean);
+                continue;
+            }
+            LOGGER.debug("Register body converter for {0}: {1}", targetType.getName(), bean);
+            converters.put(targetType, (BodyConverter<?>) beanManager.getReference(bean, converterType, beanManager.createCreationalContext(bean)));
+        }
+        return new BodyConverters(converters);
+    }
+
+    private BodyConverters(Map<Class<?>, BodyConverter<?>> converters) {
+        this.converters = converters;
+    }
+
+    /**
+     *
+     * @param body
+     * @param type
+     * @return the body converted to the given type
+     * @throws IllegalArgumentException If no converter exists for the given type
+     */
+    <T> T convert(Object body, Class<T> type) {
+        if (body == null || type.isInstance(body)) {
+            return type.cast(body);
+        }
+        BodyConverter<?> converter = converters.get(type);
+        if (converter == null) {
+            throw new IllegalArgumentException("No body converter registered for " + type.getName());
+        }
+        return type.cast(converter.convert(body));
+    }
+
+    /**
+     *
+     * @param bean
+     * @return the {@link BodyConverter} bean type or <code>null</code> if the bean is not a converter
+     */
+    static Type getConverterType(Bean<?> bean) {
+        for (Type type : bean.getTypes()) {
+            if (BodyConverter.class.equals(type) || (type instanceof ParameterizedType && BodyConverter.class.equals(((ParameterizedType) type).getRawType()))) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> getTargetType(Type converterType) {
+        if (converterType instanceof ParameterizedType) {
+            Type targetType = ((ParameterizedType) converterType).getActualTypeArguments()[0];
+            if (targetType instanceof Class) {
+                return (Class<?>) targetType;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static JsonArray toJsonArray(Object body) {
+        if (body instanceof List) {
+            return new JsonArray((List) body);
+        }
+        return new JsonArray(body.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static JsonObject toJsonObject(Object body) {
+        if (body instanceof Map) {
+            return new JsonObject((Map<String, Object>) body);
+        }
+        return new JsonObject(body.toString());
+    }
+
+}
@@ -0,0 +1,426 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.inject.spi.AnnotatedMethod;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.ObserverMethod;
+
+import org.jboss.weld.vertx.VertxConsumer.Overflow;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Holds the configuration of a message consumer registered for a specific address. The configuration is merged from all the observer methods which declare the
+ * same address.
+ *
+ * @author Martin Kouba
+ * @see VertxConsumer
+ */
+class ConsumerInfo {
+
+    private final String address;
+
+    private boolean blocking;
+
+    private boolean ordered;
+
+    private int maxConcurrency;
+
+    private String workerPool;
+
+    private int workerPoolSize;
+
+    private boolean virtualThread;
+
+    private Boolean batch;
+
+    private int maxBatchSize;
+
+    private long maxBatchLinger;
+
+    private int maxInFlight;
+
+    private Overflow overflow;
+
+    private boolean parallel;
+
+    private boolean local;
+
+    private int instances;
+
+    private boolean replyObserver;
+
+    private String partitionKey;
+
+    private int partitions;
+
+    private Bean<?> bean;
+
+    private AnnotatedMethod<?> method;
+
+    private final List<Observer> observers;
+
+    ConsumerInfo(String address) {
+        this.address = address;
+        this.blocking = false;
+        this.ordered = false;
+        this.maxConcurrency = 0;
+        this.workerPool = null;
+        this.workerPoolSize = 0;
+        this.virtualThread = true;
+        this.batch = null;
+        this.maxBatchSize = Integer.MAX_VALUE;
+        this.maxBatchLinger = Long.MAX_VALUE;
+        this.maxInFlight = 0;
+        this.overflow = Overflow.FAIL;
+        this.parallel = false;
+        this.local = true;
+        this.instances = 1;
+        this.replyObserver = false;
+        this.partitionKey = null;
+        this.partitions = 0;
+        this.observers = new ArrayList<>();
+    }
+
+    String getAddress() {
+        return address;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if at least one of the observers may block
+     */
+    boolean isBlocking() {
+        return blocking;
+    }
+
+    /**
+     * Virtual thread consumers are never ordered. However, this method does not take {@link #isVirtualThread()} into account because the default worker pool
+     * is used if virtual threads are not supported by the runtime.
+     *
+     * @return <code>true</code> if at least one of the observers requires ordered execution and the observers are not notified in parallel
+     * @see Dispatcher#from(io.vertx.core.Context, ConsumerInfo, WorkerPools)
+     */
+    boolean isOrdered() {
+        return ordered && !parallel;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if all the observers only accept messages from the local event bus
+     */
+    boolean isLocal() {
+        return local;
+    }
+
+    /**
+     *
+     * @return the number of message consumer instances, i.e. at least <code>1</code>
+     */
+    int getInstances() {
+        return instances;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if at least one of the observers requires parallel notification
+     */
+    boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     *
+     * @return the name of the header or body field holding the partition key or <code>null</code> if the messages are not partitioned
+     */
+    String getPartitionKey() {
+        return partitionKey;
+    }
+
+    /**
+     *
+     * @return the number of partitions, i.e. at least <code>1</code>
+     */
+    int getPartitions() {
+        return partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     *
+     * @return the max number of messages processed concurrently, <code>0</code> means no limit
+     */
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     *
+     * @return the name of the worker pool or <code>null</code> if the default Vert.x worker pool should be used
+     */
+    String getWorkerPool() {
+        return workerPool;
+    }
+
+    /**
+     *
+     * @return the declared size of the worker pool, <code>0</code> means the default size
+     */
+    int getWorkerPoolSize() {
+        return workerPoolSize;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if all the observers may be notified on a virtual thread
+     */
+    boolean isVirtualThread() {
+        return virtualThread;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the observers observe {@link VertxBatchEvent}
+     */
+    boolean isBatch() {
+        return batch != null && batch;
+    }
+
+    /**
+     *
+     * @return <code>true</code> if the messages are consumed by a consumer method instead of observer methods
+     */
+    boolean isMethod() {
+        return method != null;
+    }
+
+    Bean<?> getBean() {
+        return bean;
+    }
+
+    AnnotatedMethod<?> getMethod() {
+        return method;
+    }
+
+    /**
+     *
+     * @return the observer methods for the address
+     */
+    List<Observer> getObservers() {
+        return observers;
+    }
+
+    /**
+     *
+     * @param observerMethod
+     * @param method
+     */
+    void addObserver(ObserverMethod<?> observerMethod, AnnotatedMethod<?> method) {
+        observers.add(new Observer(observerMethod, method));
+    }
+
+    int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    long getMaxBatchLinger() {
+        return maxBatchLinger;
+    }
+
+    /**
+     *
+     * @return the max number of messages in flight, <code>0</code> means no limit
+     */
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    Overflow getOverflow() {
+        return overflow;
+    }
+
+    /**
+     *
+     * @param consumer
+     * @param batch <code>true</code> if the observer observes {@link VertxBatchEvent}
+     * @throws IllegalStateException If the observers declare different worker pools or partition keys for the same address, if {@link VertxEvent} and
+     *         {@link VertxBatchEvent} observers are mixed, if a consumer method is declared for the same address, if multiple reply observers are declared or
+     *         if a partition key is combined with multiple instances
+     */
+    void merge(VertxConsumer consumer, boolean batch) {
+        if (method != null) {
+            throw new IllegalStateException("Observer methods and a consumer method may not be declared for the same address: " + address);
+        }
+        if (this.batch != null && this.batch != batch) {
+            throw new IllegalStateException("VertxEvent and VertxBatchEvent observers may not be declared for the same address: " + address);
+        }
+        this.batch = batch;
+        if (batch) {
+            maxBatchSize = Math.min(maxBatchSize, consumer.maxBatchSize());
+            maxBatchLinger = Math.min(maxBatchLinger, consumer.maxBatchLinger());
+        }
+        mergeSettings(consumer);
+    }
+
+    /**
+     *
+     * @param consumer
+     * @param bean the bean declaring the consumer method
+     * @param method
+     * @throws IllegalStateException If there are observer methods or another consumer method declared for the same address
+     */
+    void mergeMethod(VertxConsumer consumer, Bean<?> bean, AnnotatedMethod<?> method) {
+        if (batch != null) {
+            throw new IllegalStateException("Observer methods and a consumer method may not be declared for the same address: " + address);
+        }
+        if (this.method != null) {
+            throw new IllegalStateException("Multiple consumer methods declared for " + address + ": " + this.method + " and " + method);
+        }
+        this.bean = bean;
+        this.method = method;
+        mergeSettings(consumer);
+    }
+
+    private void mergeSettings(VertxConsumer consumer) {
+        if (consumer.blocking()) {
+            blocking = true;
+        }
+        if (consumer.ordered()) {
+            ordered = true;
+        }
+        if (consumer.maxConcurrency() > 0 && (maxConcurrency == 0 || consumer.maxConcurrency() < maxConcurrency)) {
+            maxConcurrency = consumer.maxConcurrency();
+        }
+        if (!consumer.workerPool().isEmpty()) {
+            if (workerPool != null && !workerPool.equals(consumer.workerPool())) {
+                throw new IllegalStateException("Different worker pools declared for " + address + ": " + workerPool + " and " + consumer.workerPool());
+            }
+            workerPool = consumer.workerPool();
+            workerPoolSize = Math.max(workerPoolSize, consumer.workerPoolSize());
+        }
+        if (!consumer.partitionKey().isEmpty()) {
+            if (partitionKey != null && !partitionKey.equals(consumer.partitionKey())) {
+                throw new IllegalStateException("Different partition keys declared for " + address + ": " + partitionKey + " and " + consumer.partitionKey());
+            }
+            partitionKey = consumer.partitionKey();
+            partitions = Math.max(partitions, consumer.partitions());
+        }
+        if (!consumer.virtualThread()) {
+            virtualThread = false;
+        }
+        if (consumer.maxInFlight() > 0 && (maxInFlight == 0 || consumer.maxInFlight() < maxInFlight)) {
+            maxInFlight = consumer.maxInFlight();
+        }
+        if (Overflow.PAUSE.equals(consumer.overflow())) {
+            overflow = Overflow.PAUSE;
+        }
+        if (consumer.parallel()) {
+            parallel = true;
+        }
+        if (!consumer.local()) {
+            local = false;
+        }
+        instances = Math.max(instances, consumer.instances());
+        if (consumer.replyObserver()) {
+            if (replyObserver) {
+                throw new IllegalStateException("Multiple reply observers declared for: " + address);
+            }
+            replyObserver = true;
+        }
+        validatePartitioning();
+    }
+
+    private void validatePartitioning() {
+        // Each instance has its own lanes - the messages with the same key would not be processed serially
+        if (partitionKey != null && instances > 1) {
+            throw new IllegalStateException("A partition key may not be combined with multiple consumer instances: " + address);
+        }
+    }
+
+    /**
+     * The values from the deployment configuration override the values declared by observer methods.
+     *
+     * @param config
+     * @throws IllegalStateException If a partition key is combined with multiple instances
+     * @see WeldVerticle#CONSUMERS_CONFIG_KEY
+     */
+    void configure(JsonObject config) {
+        blocking = config.getBoolean("blocking", blocking);
+        ordered = config.getBoolean("ordered", ordered);
+        maxConcurrency = config.getInteger("maxConcurrency", maxConcurrency);
+        workerPool = config.getString("workerPool", workerPool);
+        virtualThread = config.getBoolean("virtualThread", virtualThread);
+        maxBatchSize = config.getInteger("maxBatchSize", maxBatchSize);
+        maxBatchLinger = config.getLong("maxBatchLinger", maxBatchLinger);
+        maxInFlight = config.getInteger("maxInFlight", maxInFlight);
+        parallel = config.getBoolean("parallel", parallel);
+        local = config.getBoolean("local", local);
+        instances = Math.max(1, config.getInteger("instances", instances));
+        partitionKey = config.getString("partitionKey", partitionKey);
+        partitions = config.getInteger("partitions", partitions);
+        String overflowValue = config.getString("overflow");
+        if (overflowValue != null) {
+            overflow = Overflow.valueOf(overflowValue);
+        }
+        validatePartitioning();
+    }
+
+    @Override
+    public String toString() {
+        return "ConsumerInfo [address=" + address + ", blocking=" + blocking + ", ordered=" + ordered + ", maxConcurrency=" + maxConcurrency + ", workerPool="
+                + workerPool + ", virtualThread=" + virtualThread + ", batch=" + isBatch() + ", maxInFlight=" + maxInFlight + ", overflow=" + overflow
+                + ", parallel=" + parallel + ", local=" + local + ", instances=" + instances + ", partitionKey=" + partitionKey + ", method=" + method + "]";
+    }
+
+    /**
+     * An observer method together with its declaring bean. The declaring bean is only known once all the beans are discovered.
+     */
+    static class Observer {
+
+        private final ObserverMethod<?> observerMethod;
+
+        private final AnnotatedMethod<?> method;
+
+        private Bean<?> bean;
+
+        Observer(ObserverMethod<?> observerMethod, AnnotatedMethod<?> method) {
+            this.observerMethod = observerMethod;
+            this.method = method;
+        }
+
+        ObserverMethod<?> getObserverMethod() {
+            return observerMethod;
+        }
+
+        AnnotatedMethod<?> getMethod() {
+            return method;
+        }
+
+        Bean<?> getBean() {
+            return bean;
+        }
+
+        void setBean(Bean<?> bean) {
+            this.bean = bean;
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.Set;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Provides runtime information about the message consumers registered by the {@link WeldVerticle}. An instance of this interface is available for injection.
+ * <p>
+ * The values may be read from any thread.
+ *
+ * @author Martin Kouba
+ */
+public interface ConsumerMetrics {
+
+    /**
+     *
+     * @return the set of consumer addresses
+     */
+    Set<String> getAddresses();
+
+    /**
+     *
+     * @param address
+     * @return the number of messages accepted but not completed yet, i.e. queued or being processed
+     * @throws IllegalArgumentException If no consumer is registered for the given address
+     */
+    int getInFlight(String address);
+
+    /**
+     *
+     * @param address
+     * @return the number of messages rejected because the max number of messages in flight was reached
+     * @throws IllegalArgumentException If no consumer is registered for the given address
+     * @see VertxConsumer#maxInFlight()
+     */
+    long getRejected(String address);
+
+    /**
+     *
+     * @param address
+     * @return the number of messages dropped because the deadline passed before the observers were notified
+     * @throws IllegalArgumentException If no consumer is registered for the given address
+     * @see WeldVerticle#DEADLINE_HEADER
+     */
+    long getExpired(String address);
+
+    /**
+     * The snapshot contains a JSON object for each address, e.g.:
+     *
+     * <pre>
+     * {
+     *   "my.address" : {
+     *     "inFlight" : 2,
+     *     "rejected" : 0,
+     *     "expired" : 0,
+     *     "failures" : { "6912" : 1 },
+     *     "queueWait" : { "count" : 100, "mean" : 35, "max" : 840, "p50" : 31, "p90" : 63, "p99" : 511 },
+     *     "execution" : { ... },
+     *     "reply" : { ... }
+     *   }
+     * }
+     * </pre>
+     *
+     * <ul>
+     * <li><code>failures</code> - the number of failed messages per failure code</li>
+     * <li><code>queueWait</code> - the time between a message was accepted and the observers notification started</li>
+     * <li><code>execution</code> - the time spent in the observer methods</li>
+     * <li><code>reply</code> - the time between a message was accepted and the reply or failure was sent</li>
+     * </ul>
+     * All the durations are in microseconds. Percentiles are approximate. The queue wait and execution time are not recorded for batch consumers. For
+     * observers notified in parallel, they are recorded once per message, i.e. from the start of the first notification to the end of the last one.
+     *
+     * @return the snapshot of all the metrics
+     * @see WeldVerticle#METRICS_ADDRESS_CONFIG_KEY
+     */
+    JsonObject getSnapshot();
+
+}
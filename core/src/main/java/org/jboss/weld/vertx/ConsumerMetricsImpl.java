@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.Collections;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * The counters and histograms are lock-free. Durations are recorded from the context of the {@link WeldVerticle} and also from the worker threads.
+ *
+ * @author Martin Kouba
+ */
+class ConsumerMetricsImpl implements ConsumerMetrics {
+
+    private final ConcurrentMap<String, AddressMetrics> addresses;
+
+    ConsumerMetricsImpl() {
+        this.addresses = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Set<String> getAddresses() {
+        return Collections.unmodifiableSet(addresses.keySet());
+    }
+
+    @Override
+    public int getInFlight(String address) {
+        return get(address).inFlight.get();
+    }
+
+    @Override
+    public long getRejected(String address) {
+        return get(address).rejected.sum();
+    }
+
+    @Override
+    public long getExpired(String address) {
+        return get(address).expired.sum();
+    }
+
+    @Override
+    public JsonObject getSnapshot() {
+        JsonObject snapshot = new JsonObject();
+        for (Entry<String, AddressMetrics> entry : addresses.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().toJson());
+        }
+        return snapshot;
+    }
+
+    AddressMetrics register(String address) {
+        AddressMetrics metrics = new AddressMetrics();
+        AddressMetrics previous = addresses.putIfAbsent(address, metrics);
+        return previous != null ? previous : metrics;
+    }
+
+    private AddressMetrics get(String address) {
+        AddressMetrics metrics = addresses.get(address);
+        if (metrics == null) {
+            throw new IllegalArgumentException("No consumer registered for: " + address);
+        }
+        return metrics;
+    }
+
+    static class AddressMetrics {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final LongAdder rejected = new LongAdder();
+
+        private final LongAdder expired = new LongAdder();
+
+        private final ConcurrentMap<Integer, LongAdder> failures = new ConcurrentHashMap<>();
+
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+
+        private final LatencyHistogram execution = new LatencyHistogram();
+
+        private final LatencyHistogram reply = new LatencyHistogram();
+
+        /**
+         *
+         * @return the number of messages in flight, including the accepted one
+         */
+        int accepted() {
+            return inFlight.incrementAndGet();
+        }
+
+        /**
+         *
+         * @return the number of messages in flight
+         */
+        int completed() {
+            return inFlight.decrementAndGet();
+        }
+
+        int getInFlight() {
+            return inFlight.get();
+        }
+
+        void rejected() {
+            rejected.increment();
+        }
+
+        void expired() {
+            expired.increment();
+        }
+
+        void failed(int code) {
+            failures.computeIfAbsent(code, c -> new LongAdder()).increment();
+        }
+
+        /**
+         *
+         * @param nanos The time between the message was accepted and the observers notification started
+         */
+        void queueWait(long nanos) {
+            queueWait.record(nanos);
+        }
+
+        /**
+         *
+         * @param nanos The time spent in the observer methods
+         */
+        void execution(long nanos) {
+            execution.record(nanos);
+        }
+
+        /**
+         *
+         * @param nanos The time between the message was accepted and the reply or failure was sent, or would be sent if there was a reply handler
+         */
+        void reply(long nanos) {
+            reply.record(nanos);
+        }
+
+        JsonObject toJson() {
+            JsonObject failuresJson = new JsonObject();
+            for (Entry<Integer, LongAdder> entry : failures.entrySet()) {
+                failuresJson.put(entry.getKey().toString(), entry.getValue().sum());
+            }
+            return new JsonObject().put("inFlight", inFlight.get()).put("rejected", rejected.sum()).put("expired", expired.sum()).put("failures", failuresJson)
+                    .put("queueWait", queueWait.toJson()).put("execution", execution.toJson()).put("reply", reply.toJson());
+        }
+
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.jboss.weld.environment.se.WeldContainer;
+
+/**
+ * Holds the Weld container together with the resources used by all the message consumers, i.e. the codecs, the body converters and the worker pools.
+ * <p>
+ * A shared holder is used by all the {@link WeldVerticle} instances of the same deployment. It's bootstrapped by the first instance started and closed once
+ * the last instance is stopped.
+ *
+ * @author Martin Kouba
+ * @see WeldVerticle#SHARED_CONTAINER_CONFIG_KEY
+ */
+class ContainerHolder {
+
+    private static final ConcurrentMap<String, CompletableFuture<ContainerHolder>> SHARED = new ConcurrentHashMap<>();
+
+    private final WeldContainer weldContainer;
+
+    private final VertxExtension vertxExtension;
+
+    private final MessageCodecs messageCodecs;
+
+    private final BodyConverters bodyConverters;
+
+    private final WorkerPools workerPools;
+
+    private final AtomicInteger references;
+
+    private volatile String sharedId;
+
+    ContainerHolder(WeldContainer weldContainer, VertxExtension vertxExtension, MessageCodecs messageCodecs, BodyConverters bodyConverters,
+            WorkerPools workerPools) {
+        this.weldContainer = weldContainer;
+        this.vertxExtension = vertxExtension;
+        this.messageCodecs = messageCodecs;
+        this.bodyConverters = bodyConverters;
+        this.workerPools = workerPools;
+        this.references = new AtomicInteger(1);
+    }
+
+    /**
+     * The first caller starts the bootstrap. The others are not blocked, the returned future is completed once the bootstrap is finished.
+     *
+     * @param deploymentId
+     * @param bootstrap
+     * @return the future holder shared by all the instances of the given deployment
+     */
+    static CompletableFuture<ContainerHolder> shared(String deploymentId, Supplier<CompletableFuture<ContainerHolder>> bootstrap) {
+        CompletableFuture<ContainerHolder> future = new CompletableFuture<>();
+        CompletableFuture<ContainerHolder> previous = SHARED.putIfAbsent(deploymentId, future);
+        if (previous != null) {
+            return previous.thenApply(ContainerHolder::retain);
+        }
+        bootstrap.get().whenComplete((holder, failure) -> {
+            if (failure != null) {
+                SHARED.remove(deploymentId, future);
+                future.completeExceptionally(failure);
+            } else {
+                holder.sharedId = deploymentId;
+                future.complete(holder);
+            }
+        });
+        return future;
+    }
+
+    WeldContainer getWeldContainer() {
+        return weldContainer;
+    }
+
+    VertxExtension getVertxExtension() {
+        return vertxExtension;
+    }
+
+    BodyConverters getBodyConverters() {
+        return bodyConverters;
+    }
+
+    WorkerPools getWorkerPools() {
+        return workerPools;
+    }
+
+    /**
+     * Once all the references are released the codecs are unregistered, the worker pools are closed and the container is shut down.
+     */
+    void release() {
+        if (references.decrementAndGet() > 0) {
+            return;
+        }
+        if (sharedId != null) {
+            SHARED.remove(sharedId);
+        }
+        workerPools.close();
+        messageCodecs.close();
+        if (weldContainer.isRunning()) {
+            weldContainer.shutdown();
+        }
+    }
+
+    private ContainerHolder retain() {
+        references.incrementAndGet();
+        return this;
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.NormalScope;
+
+import io.vertx.core.Context;
+
+/**
+ * A normal scope bound to the current Vert.x {@link Context}, i.e. each event loop context has its own bean instance. The instances are only accessed from the
+ * event loop thread of the context and so the beans don't need to be thread-safe.
+ * <p>
+ * The scope is only active on an event loop thread of a context owned by the container, i.e. a context of the {@link WeldVerticle} or of the additional
+ * consumer instances. Any attempt to access a context scoped bean from a worker thread or from a foreign context results in {@link ContextNotActiveException},
+ * even if the blocking code is executed on behalf of an event loop context. The instances are destroyed when the Weld container is shut down.
+ *
+ * @author Martin Kouba
+ * @see VertxConsumer#blocking()
+ */
+@Documented
+@NormalScope
+@Inherited
+@Target({ TYPE, METHOD, FIELD })
+@Retention(RUNTIME)
+public @interface ContextScoped {
+
+}
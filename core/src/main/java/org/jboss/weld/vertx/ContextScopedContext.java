@@ -0,0 +1,105 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.spi.Contextual;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+
+/**
+ * The context of {@link ContextScoped} beans. The instances are stored in the data of the current Vert.x {@link Context}. Since the context is only active on
+ * the event loop thread of a Vert.x context, the instances of a Vert.x context are never created concurrently. However, the instances are destroyed on the
+ * thread which shuts down the container and so a concurrent map is used.
+ * <p>
+ * The context is only active on the Vert.x contexts owned by the container, i.e. the contexts the message consumers are registered on. Otherwise, the
+ * instances created on a foreign context would never be destroyed.
+ *
+ * @author Martin Kouba
+ */
+class ContextScopedContext extends AbstractScopeContext {
+
+    private final String key;
+
+    // The Vert.x contexts owned by the container, the instances are destroyed on shutdown
+    private final Set<Context> contexts;
+
+    ContextScopedContext() {
+        // Multiple containers may share the same Vert.x context
+        this.key = ContextScoped.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+        this.contexts = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Activates the scope for the given Vert.x context.
+     *
+     * @param context
+     */
+    void addContext(Context context) {
+        contexts.add(context);
+    }
+
+    @Override
+    public Class<? extends Annotation> getScope() {
+        return ContextScoped.class;
+    }
+
+    @Override
+    public boolean isActive() {
+        if (!Context.isOnEventLoopThread()) {
+            return false;
+        }
+        Context context = Vertx.currentContext();
+        return context != null && contexts.contains(context);
+    }
+
+    /**
+     * Destroys all the instances. Must not be called while the instances are still in use, i.e. the message consumers should be already unregistered.
+     */
+    void destroyAll() {
+        for (Context context : contexts) {
+            Map<Contextual<?>, ContextualInstance<?>> instances = context.get(key);
+            context.remove(key);
+            if (instances != null) {
+                destroyAll(instances);
+            }
+        }
+        contexts.clear();
+    }
+
+    @Override
+    protected Map<Contextual<?>, ContextualInstance<?>> getInstances(boolean create) {
+        if (!isActive()) {
+            throw new ContextNotActiveException(
+                    "@ContextScoped beans may only be used on an event loop thread of a context owned by the container: " + Thread.currentThread().getName());
+        }
+        Context context = Vertx.currentContext();
+        Map<Contextual<?>, ContextualInstance<?>> instances = context.get(key);
+        if (instances == null && create) {
+            instances = new ConcurrentHashMap<>();
+            context.put(key, instances);
+        }
+        return instances;
+    }
+
+}
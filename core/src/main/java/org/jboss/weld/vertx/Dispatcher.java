@@ -0,0 +1,248 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+
+/**
+ * Determines how the observers for a specific address are notified.
+ * <p>
+ * The result handler is always called on the context of the {@link WeldVerticle}. Dispatchers are only used from the context thread, i.e. the implementations
+ * don't need to be thread-safe.
+ *
+ * @author Martin Kouba
+ * @see ConsumerInfo
+ */
+interface Dispatcher {
+
+    /**
+     *
+     * @param task the task notifying the observers, completes the future when finished
+     * @param resultHandler
+     */
+    void dispatch(Handler<Future<Object>> task, Handler<AsyncResult<Object>> resultHandler);
+
+    /**
+     * The tasks with the same partition key are executed in the order of dispatching. The default implementation ignores the key.
+     *
+     * @param key the partition key, may be <code>null</code>
+     * @param task the task notifying the observers, completes the future when finished
+     * @param resultHandler
+     * @see VertxConsumer#partitionKey()
+     */
+    default void dispatch(Object key, Handler<Future<Object>> task, Handler<AsyncResult<Object>> resultHandler) {
+        dispatch(task, resultHandler);
+    }
+
+    static Dispatcher from(Context context, ConsumerInfo consumer, WorkerPools workerPools) {
+        if (!consumer.isBlocking()) {
+            return new EventLoopDispatcher();
+        }
+        Executor executor = null;
+        // The ordering depends on the executor actually used, i.e. not on the virtual thread executor if not supported by the runtime
+        boolean ordered = consumer.isOrdered();
+        if (consumer.isVirtualThread()) {
+            executor = workerPools.getVirtualThreadExecutor();
+            if (executor != null) {
+                ordered = false;
+            }
+        } else if (consumer.getWorkerPool() != null) {
+            executor = workerPools.get(consumer.getWorkerPool());
+        }
+        if (consumer.getPartitionKey() != null) {
+            // Partitioned notifications are executed serially per lane, the lanes share the pool
+            Dispatcher dispatcher = executor != null ? new WorkerPoolDispatcher(context, executor) : new BlockingDispatcher(context, false);
+            return new PartitionedDispatcher(dispatcher, consumer.getPartitions());
+        }
+        if (executor != null) {
+            Dispatcher dispatcher = new WorkerPoolDispatcher(context, executor);
+            // Ordered notifications are executed serially
+            int maxConcurrency = ordered ? 1 : consumer.getMaxConcurrency();
+            return maxConcurrency > 0 ? new BoundedDispatcher(dispatcher, maxConcurrency) : dispatcher;
+        }
+        if (ordered) {
+            return new BlockingDispatcher(context, true);
+        }
+        Dispatcher dispatcher = new BlockingDispatcher(context, false);
+        return consumer.getMaxConcurrency() > 0 ? new BoundedDispatcher(dispatcher, consumer.getMaxConcurrency()) : dispatcher;
+    }
+
+    /**
+     * Notifies the observers directly on the event loop.
+     */
+    class EventLoopDispatcher implements Dispatcher {
+
+        @Override
+        public void dispatch(Handler<Future<Object>> task, Handler<AsyncResult<Object>> resultHandler) {
+            Future<Object> future = Future.future();
+            future.setHandler(resultHandler);
+            task.handle(future);
+        }
+
+    }
+
+    /**
+     * Notifies the observers using {@link Context#executeBlocking(Handler, boolean, Handler)}. If ordered, the tasks are executed serially together with all
+     * other ordered tasks of the same context.
+     */
+    class BlockingDispatcher implements Dispatcher {
+
+        private final Context context;
+
+        private final boolean ordered;
+
+        BlockingDispatcher(Context context, boolean ordered) {
+            this.context = context;
+            this.ordered = ordered;
+        }
+
+        @Override
+        public void dispatch(Handler<Future<Object>> task, Handler<AsyncResult<Object>> resultHandler) {
+            context.executeBlocking(task, ordered, resultHandler);
+        }
+
+    }
+
+    /**
+     * Notifies the observers using a dedicated worker pool or virtual threads. The result handler is called on the context.
+     *
+     * @see WorkerPools
+     */
+    class WorkerPoolDispatcher implements Dispatcher {
+
+        private final Context context;
+
+        private final Executor executor;
+
+        WorkerPoolDispatcher(Context context, Executor executor) {
+            this.context = context;
+            this.executor = executor;
+        }
+
+        @Override
+        public void dispatch(Handler<Future<Object>> task, Handler<AsyncResult<Object>> resultHandler) {
+            Future<Object> future = Future.future();
+            future.setHandler(result -> context.runOnContext(v -> resultHandler.handle(result)));
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.handle(future);
+                    } catch (Throwable e) {
+                        if (!future.isComplete()) {
+                            future.fail(e);
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                future.fail(e);
+            }
+        }
+
+    }
+
+    /**
+     * Limits the number of tasks executed concurrently by the delegate. The tasks exceeding the limit are queued and dispatched in FIFO order once a running
+     * task completes.
+     */
+    class BoundedDispatcher implements Dispatcher {
+
+        private final Dispatcher delegate;
+
+        private final int maxConcurrency;
+
+        private final Queue<Runnable> pending;
+
+        private int running;
+
+        BoundedDispatcher(Dispatcher delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.maxConcurrency = maxConcurrency;
+            this.pending = new ArrayDeque<>();
+        }
+
+        @Override
+        public void dispatch(Handler<Future<Object>> task, Handler<AsyncResult<Object>> resultHandler) {
+            if (running < maxConcurrency) {
+                running++;
+                delegate.dispatch(task, result -> {
+                    try {
+                        resultHandler.handle(result);
+                    } finally {
+                        running--;
+                        Runnable next = pending.poll();
+                        if (next != null) {
+                            next.run();
+                        }
+                    }
+                });
+            } else {
+                pending.add(() -> dispatch(task, resultHandler));
+            }
+        }
+
+    }
+
+    /**
+     * Hashes the partition keys to a fixed number of lanes. The tasks of a lane are executed serially, the lanes are executed in parallel. The tasks without a
+     * key are dispatched directly to the delegate.
+     */
+    class PartitionedDispatcher implements Dispatcher {
+
+        private final Dispatcher delegate;
+
+        private final BoundedDispatcher[] lanes;
+
+        PartitionedDispatcher(Dispatcher delegate, int partitions) {
+            this.delegate = delegate;
+            this.lanes = new BoundedDispatcher[Math.max(1, partitions)];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] = new BoundedDispatcher(delegate, 1);
+            }
+        }
+
+        @Override
+        public void dispatch(Handler<Future<Object>> task, Handler<AsyncResult<Object>> resultHandler) {
+            delegate.dispatch(task, resultHandler);
+        }
+
+        @Override
+        public void dispatch(Object key, Handler<Future<Object>> task, Handler<AsyncResult<Object>> resultHandler) {
+            if (key == null) {
+                delegate.dispatch(task, resultHandler);
+            } else {
+                lanes[lane(key)].dispatch(task, resultHandler);
+            }
+        }
+
+        int lane(Object key) {
+            int hash = key.hashCode();
+            // Spread the higher bits so that similar keys do not end up in the same lane
+            hash ^= (hash >>> 16);
+            return (hash & Integer.MAX_VALUE) % lanes.length;
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A lock-free histogram of durations with exponential buckets. The bucket <code>i</code> holds the values from <code>2^(i-1)</code> to <code>2^i - 1</code>
+ * microseconds, i.e. the percentiles are approximated with the upper bound of the relevant bucket.
+ *
+ * @author Martin Kouba
+ */
+class LatencyHistogram {
+
+    // The last bucket holds all the values greater than ~9 minutes
+    private static final int BUCKETS = 30;
+
+    private final AtomicLongArray buckets;
+
+    private final LongAdder sum;
+
+    private final LongAccumulator max;
+
+    LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKETS);
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Long::max, 0);
+    }
+
+    /**
+     *
+     * @param nanos
+     */
+    void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros)));
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    /**
+     * The values are not guaranteed to be consistent if recorded concurrently.
+     *
+     * @return the snapshot, all the durations are in microseconds
+     */
+    JsonObject toJson() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            count += counts[i];
+        }
+        long max = this.max.get();
+        return new JsonObject().put("count", count).put("mean", count > 0 ? sum.sum() / count : 0).put("max", max)
+                .put("p50", percentile(counts, count, max, 0.5)).put("p90", percentile(counts, count, max, 0.9))
+                .put("p99", percentile(counts, count, max, 0.99));
+    }
+
+    private long percentile(long[] counts, long count, long max, double quantile) {
+        long rank = (long) Math.ceil(count * quantile);
+        long current = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            current += counts[i];
+            if (current >= rank && current > 0) {
+                return Math.min(max, i == 0 ? 0 : (1L << i) - 1);
+            }
+        }
+        return max;
+    }
+
+}
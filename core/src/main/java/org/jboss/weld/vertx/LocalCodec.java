@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * An identity codec which passes the message body by reference, i.e. the object is not serialized at all. Therefore, it can only be used for local delivery.
+ * Also note that all the recipients of a published message receive the same instance.
+ * <p>
+ * The {@link WeldVerticle} automatically registers all the {@link MessageCodec} beans. If the body type is known, the codec is also registered as the default
+ * codec for the type:
+ *
+ * <pre>
+ * &#64;Produces
+ * static final LocalCodec&lt;Order&gt; ORDER_CODEC = LocalCodec.of(Order.class);
+ * </pre>
+ *
+ * @author Martin Kouba
+ * @param <T> the type of the message body
+ */
+public class LocalCodec<T> implements MessageCodec<T, T> {
+
+    /**
+     *
+     * @param type
+     * @return a new identity codec for the given type
+     */
+    public static <T> LocalCodec<T> of(Class<T> type) {
+        return new LocalCodec<>("weld-local-" + type.getName());
+    }
+
+    private final String name;
+
+    private LocalCodec(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void encodeToWire(Buffer buffer, T body) {
+        throw new UnsupportedOperationException(name + " can only be used for local delivery");
+    }
+
+    @Override
+    public T decodeFromWire(int pos, Buffer buffer) {
+        throw new UnsupportedOperationException(name + " can only be used for local delivery");
+    }
+
+    @Override
+    public T transform(T body) {
+        return body;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+
+}
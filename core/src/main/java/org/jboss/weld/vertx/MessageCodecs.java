@@ -0,0 +1,192 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * The {@link MessageCodec} beans registered on the event bus. The codecs are registered when the {@link WeldVerticle} is started (before the message consumers)
+ * and unregistered when the verticle is stopped.
+ * <p>
+ * The event bus is shared by all the deployments of a Vert.x instance. Therefore, the registrations are reference-counted per event bus so that the same
+ * codec may be declared by multiple containers, e.g. if a verticle is deployed with multiple instances. The codec is only registered by the first container and
+ * unregistered once the last container releases it.
+ *
+ * @author Martin Kouba
+ * @see LocalCodec
+ */
+class MessageCodecs {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageCodecs.class.getName());
+
+    // Event bus -> codec name or default type -> number of containers
+    private static final Map<EventBus, Map<Object, Integer>> REGISTRATIONS = new IdentityHashMap<>();
+
+    private final EventBus eventBus;
+
+    private final List<String> names;
+
+    private final List<Class<?>> defaultTypes;
+
+    /**
+     * Each codec is registered under its name. If the body type of a codec bean is a class, e.g. <code>MessageCodec&lt;Order, Order&gt;</code>, the codec is
+     * also registered as the default codec for the type.
+     *
+     * @param eventBus
+     * @param beanManager
+     * @param codecBeans
+     * @return the registered codecs
+     */
+    static MessageCodecs register(EventBus eventBus, BeanManager beanManager, Collection<Bean<?>> codecBeans) {
+        MessageCodecs codecs = new MessageCodecs(eventBus);
+        try {
+            for (Bean<?> bean : codecBeans) {
+                Type codecType = getCodecType(bean);
+                MessageCodec<?, ?> codec = (MessageCodec<?, ?>) beanManager.getReference(bean, codecType, beanManager.createCreationalContext(bean));
+                Class<?> defaultType = getBodyType(codecType);
+                if (defaultType != null) {
+                    // The codec is also registered under its name
+                    LOGGER.debug("Register default message codec {0} for {1}", codec.name(), defaultType.getName());
+                    codecs.registerDefault(defaultType, codec);
+                } else {
+                    LOGGER.debug("Register message codec {0}", codec.name());
+                    codecs.register(codec);
+                }
+            }
+        } catch (RuntimeException e) {
+            codecs.close();
+            throw e;
+        }
+        return codecs;
+    }
+
+    private MessageCodecs(EventBus eventBus) {
+        this.eventBus = eventBus;
+        this.names = new ArrayList<>();
+        this.defaultTypes = new ArrayList<>();
+    }
+
+    /**
+     * Unregisters all the codecs.
+     */
+    void close() {
+        for (String name : names) {
+            release(name, () -> eventBus.unregisterCodec(name));
+        }
+        for (Class<?> type : defaultTypes) {
+            release(type, () -> eventBus.unregisterDefaultCodec(type));
+        }
+        names.clear();
+        defaultTypes.clear();
+    }
+
+    private void register(MessageCodec<?, ?> codec) {
+        acquire(codec.name(), () -> eventBus.registerCodec(codec));
+        names.add(codec.name());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void registerDefault(Class type, MessageCodec codec) {
+        acquire(type, () -> eventBus.registerDefaultCodec(type, codec));
+        defaultTypes.add(type);
+    }
+
+    /**
+     *
+     * @param key
+     * @param registration only executed if the codec is not registered by another container yet, may throw {@link IllegalStateException} if the codec was
+     *        registered by someone else
+     */
+    private void acquire(Object key, Runnable registration) {
+        synchronized (REGISTRATIONS) {
+            Map<Object, Integer> counts = REGISTRATIONS.computeIfAbsent(eventBus, e -> new HashMap<>());
+            Integer count = counts.get(key);
+            try {
+                if (count == null) {
+                    registration.run();
+                    count = 0;
+                } else {
+                    LOGGER.debug("Message codec {0} already registered by another container", key);
+                }
+                counts.put(key, count + 1);
+            } finally {
+                if (counts.isEmpty()) {
+                    REGISTRATIONS.remove(eventBus);
+                }
+            }
+        }
+    }
+
+    private void release(Object key, Runnable unregistration) {
+        synchronized (REGISTRATIONS) {
+            Map<Object, Integer> counts = REGISTRATIONS.get(eventBus);
+            Integer count = counts != null ? counts.get(key) : null;
+            if (count == null) {
+                return;
+            }
+            if (count > 1) {
+                counts.put(key, count - 1);
+                return;
+            }
+            counts.remove(key);
+            if (counts.isEmpty()) {
+                REGISTRATIONS.remove(eventBus);
+            }
+            unregistration.run();
+        }
+    }
+
+    /**
+     *
+     * @param bean
+     * @return the {@link MessageCodec} bean type or <code>null</code> if the bean is not a codec
+     */
+    static Type getCodecType(Bean<?> bean) {
+        for (Type type : bean.getTypes()) {
+            if (MessageCodec.class.equals(type) || (type instanceof ParameterizedType && MessageCodec.class.equals(((ParameterizedType) type).getRawType()))) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> getBodyType(Type codecType) {
+        if (codecType instanceof ParameterizedType) {
+            Type bodyType = ((ParameterizedType) codecType).getActualTypeArguments()[0];
+            if (bodyType instanceof Class && !Object.class.equals(bodyType)) {
+                return (Class<?>) bodyType;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.ObserverException;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.Reception;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.AnnotatedMethod;
+import javax.enterprise.inject.spi.AnnotatedParameter;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+/**
+ * Invokes a consumer method or an observer method for a specific address. The method handle and the parameter resolution are prepared only once, when the
+ * message consumer is registered, i.e. no type-safe resolution is performed when a message is delivered.
+ * <p>
+ * A parameter of a consumer method of type {@link VertxEvent} is resolved to the current event. Any other parameter is resolved to the message body converted
+ * to the parameter type, i.e. {@link VertxEvent#getMessageBody(Class)} is used.
+ * <p>
+ * The event parameter of an observer method is resolved to the current event. Any other parameter is an injection point. The bean of an injection point is
+ * resolved once. The contextual reference of a normal scoped bean is also only obtained once, a new instance of a <code>@Dependent</code> bean is created for
+ * each invocation and destroyed when the invocation completes.
+ * <p>
+ * The contextual instance of a normal scoped declaring bean is obtained from the active context directly, i.e. the client proxy is bypassed. The instance of an
+ * <code>@ApplicationScoped</code> bean is only obtained once. A new instance of a <code>@Dependent</code> declaring bean is created for each invocation and
+ * destroyed when the invocation completes.
+ *
+ * @author Martin Kouba
+ * @see VertxConsumer
+ */
+class MethodInvoker {
+
+    private final MethodHandle handle;
+
+    private final ParameterResolver[] parameters;
+
+    private final BeanManager beanManager;
+
+    private final Bean<?> bean;
+
+    // The bean type used to obtain a contextual reference, null for static methods
+    private final Type referenceType;
+
+    // The scope of a normal scoped declaring bean, null for static methods and @Dependent beans
+    private final Class<? extends Annotation> normalScope;
+
+    private final boolean isStatic;
+
+    // A creational context is needed if the declaring bean or a parameter bean is @Dependent
+    private final boolean dependent;
+
+    // Conditional observer methods are only notified if a contextual instance exists
+    private final boolean conditional;
+
+    // The application context is only destroyed when the container shuts down, i.e. the instance does not need to be looked up again
+    private volatile Object applicationScopedInstance;
+
+    /**
+     *
+     * @param beanManager
+     * @param bean
+     * @param annotatedMethod
+     * @return the invoker of a consumer method
+     */
+    static MethodInvoker of(BeanManager beanManager, Bean<?> bean, AnnotatedMethod<?> annotatedMethod) {
+        Method method = annotatedMethod.getJavaMember();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        ParameterResolver[] parameters = new ParameterResolver[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            // The message body is always converted to a reference type
+            Class<?> type = MethodType.methodType(parameterTypes[i]).wrap().returnType();
+            if (VertxEvent.class.equals(type)) {
+                parameters[i] = (event, creationalContext) -> event;
+            } else if (Object.class.equals(type)) {
+                parameters[i] = (event, creationalContext) -> ((VertxEvent) event).getMessageBody();
+            } else {
+                parameters[i] = (event, creationalContext) -> ((VertxEvent) event).getMessageBody(type);
+            }
+        }
+        return new MethodInvoker(beanManager, bean, method, parameters, false, false);
+    }
+
+    /**
+     *
+     * @param beanManager
+     * @param observer
+     * @return the invoker of an observer method
+     */
+    static MethodInvoker ofObserver(BeanManager beanManager, ConsumerInfo.Observer observer) {
+        Method method = observer.getMethod().getJavaMember();
+        List<? extends AnnotatedParameter<?>> annotatedParameters = observer.getMethod().getParameters();
+        ParameterResolver[] parameters = new ParameterResolver[annotatedParameters.size()];
+        boolean dependent = false;
+        for (AnnotatedParameter<?> parameter : annotatedParameters) {
+            if (parameter.isAnnotationPresent(Observes.class)) {
+                parameters[parameter.getPosition()] = (event, creationalContext) -> event;
+                continue;
+            }
+            InjectionPoint injectionPoint = beanManager.createInjectionPoint(parameter);
+            Bean<?> parameterBean = beanManager
+                    .resolve(beanManager.getBeans(injectionPoint.getType(), injectionPoint.getQualifiers().toArray(new Annotation[] {})));
+            if (parameterBean != null && beanManager.isNormalScope(parameterBean.getScope())) {
+                // Client proxy
+                Object reference = beanManager.getReference(parameterBean, injectionPoint.getType(), beanManager.createCreationalContext(parameterBean));
+                parameters[parameter.getPosition()] = (event, creationalContext) -> reference;
+            } else if (parameterBean != null && !requiresInjectionPoint(injectionPoint, parameterBean)) {
+                parameters[parameter.getPosition()] = (event, creationalContext) -> beanManager.getReference(parameterBean, injectionPoint.getType(),
+                        creationalContext);
+                dependent = true;
+            } else {
+                // The injection point is needed to create the instance, e.g. for Instance or a bean which injects InjectionPoint
+                parameters[parameter.getPosition()] = (event, creationalContext) -> beanManager.getInjectableReference(injectionPoint, creationalContext);
+                dependent = true;
+            }
+        }
+        boolean conditional = Reception.IF_EXISTS.equals(observer.getObserverMethod().getReception());
+        return new MethodInvoker(beanManager, observer.getBean(), method, parameters, dependent, conditional);
+    }
+
+    private static boolean requiresInjectionPoint(InjectionPoint injectionPoint, Bean<?> bean) {
+        Class<?> rawType = getRawType(injectionPoint.getType());
+        if (Instance.class.equals(rawType) || Event.class.equals(rawType) || InjectionPoint.class.equals(rawType)) {
+            return true;
+        }
+        for (InjectionPoint beanInjectionPoint : bean.getInjectionPoints()) {
+            if (InjectionPoint.class.equals(getRawType(beanInjectionPoint.getType()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The bean class is not necessarily a bean type, e.g. if the bean types are restricted by <code>@Typed</code>.
+     *
+     * @param bean
+     * @param declaringClass
+     * @return the bean type whose raw type is the declaring class or a subtype of the declaring class, or <code>null</code> if there is no such type
+     */
+    static Type getReferenceType(Bean<?> bean, Class<?> declaringClass) {
+        Type assignable = null;
+        for (Type type : bean.getTypes()) {
+            Class<?> rawType = getRawType(type);
+            if (declaringClass.equals(rawType)) {
+                return type;
+            }
+            if (assignable == null && rawType != null && declaringClass.isAssignableFrom(rawType)) {
+                assignable = type;
+            }
+        }
+        return assignable;
+    }
+
+    private static Class<?> getRawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return null;
+    }
+
+    private MethodInvoker(BeanManager beanManager, Bean<?> bean, Method method, ParameterResolver[] parameters, boolean dependent, boolean conditional) {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        MethodHandle handle;
+        try {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to access the method: " + method, e);
+        }
+        // (Object[])Object - the target instance is the first element unless the method is static
+        int arity = parameters.length + (isStatic ? 0 : 1);
+        this.handle = handle.asType(MethodType.genericMethodType(arity)).asSpreader(Object[].class, arity);
+        Type referenceType = null;
+        Class<? extends Annotation> normalScope = null;
+        if (!isStatic) {
+            referenceType = getReferenceType(bean, method.getDeclaringClass());
+            if (referenceType == null) {
+                throw new IllegalStateException("No bean type of " + bean + " is assignable to the declaring class of the method: " + method);
+            }
+            if (beanManager.isNormalScope(bean.getScope())) {
+                // The contextual instance is obtained directly, i.e. the client proxy is not used
+                normalScope = bean.getScope();
+            } else {
+                dependent = true;
+            }
+        }
+        this.parameters = parameters;
+        this.beanManager = beanManager;
+        this.bean = bean;
+        this.referenceType = referenceType;
+        this.normalScope = normalScope;
+        this.isStatic = isStatic;
+        this.dependent = dependent;
+        this.conditional = conditional;
+    }
+
+    /**
+     *
+     * @param event
+     * @return the return value of the method, <code>null</code> for <code>void</code> methods or if a conditional observer method is not notified
+     * @throws Exception If the method throws an exception
+     */
+    Object invoke(Object event) throws Exception {
+        Object instance = null;
+        if (normalScope != null) {
+            instance = getContextualInstance();
+            if (instance == null) {
+                // Conditional observer method and no contextual instance exists
+                return null;
+            }
+        }
+        CreationalContext<?> creationalContext = dependent ? beanManager.createCreationalContext(bean) : null;
+        int offset = isStatic ? 0 : 1;
+        Object[] args = new Object[parameters.length + offset];
+        Object result;
+        try {
+            if (!isStatic) {
+                args[0] = instance != null ? instance : beanManager.getReference(bean, referenceType, creationalContext);
+            }
+            for (int i = 0; i < parameters.length; i++) {
+                args[i + offset] = parameters[i].resolve(event, creationalContext);
+            }
+            result = invoke(args);
+        } catch (Exception e) {
+            if (creationalContext != null) {
+                creationalContext.release();
+            }
+            throw e;
+        }
+        if (creationalContext != null) {
+            if (result instanceof CompletionStage) {
+                // The dependent instances may be still used by the async computation
+                ((CompletionStage<?>) result).whenComplete((r, f) -> creationalContext.release());
+            } else {
+                creationalContext.release();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The checked exceptions are wrapped in {@link ObserverException}, i.e. in the same way as if the observer method was notified by the container.
+     *
+     * @param event
+     */
+    void notify(Object event) {
+        try {
+            invoke(event);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ObserverException(e);
+        }
+    }
+
+    private Object getContextualInstance() {
+        Object instance = applicationScopedInstance;
+        if (instance != null) {
+            return instance;
+        }
+        Context context;
+        try {
+            context = beanManager.getContext(normalScope);
+        } catch (ContextNotActiveException e) {
+            if (conditional) {
+                return null;
+            }
+            throw e;
+        }
+        instance = conditional ? context.get(bean) : getContextualInstance(context, bean);
+        if (instance != null && ApplicationScoped.class.equals(normalScope)) {
+            applicationScopedInstance = instance;
+        }
+        return instance;
+    }
+
+    private <T> T getContextualInstance(Context context, Bean<T> bean) {
+        T instance = context.get(bean);
+        return instance != null ? instance : context.get(bean, beanManager.createCreationalContext(bean));
+    }
+
+    private Object invoke(Object[] args) throws Exception {
+        try {
+            return (Object) handle.invokeExact(args);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    interface ParameterResolver {
+
+        Object resolve(Object event, CreationalContext<?> creationalContext);
+
+    }
+
+}
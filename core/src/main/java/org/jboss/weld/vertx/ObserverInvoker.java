@@ -0,0 +1,79 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.inject.spi.BeanManager;
+
+/**
+ * Notifies the observer methods for a specific address. Unlike {@link Event#fire(Object)} the observer methods are resolved only once, when the message
+ * consumer is registered, and each observer method is invoked through a {@link MethodInvoker}.
+ * <p>
+ * The observer method parameters are injected and the dependent objects are destroyed when the invocation completes, i.e. in the same way as if
+ * {@link Event#fire(Object)} was used. A checked exception thrown by an observer method is wrapped in a {@link javax.enterprise.event.ObserverException}.
+ *
+ * @author Martin Kouba
+ */
+class ObserverInvoker<T> {
+
+    private final List<ConsumerInfo.Observer> observers;
+
+    private final List<MethodInvoker> invokers;
+
+    static <T> ObserverInvoker<T> of(BeanManager beanManager, ConsumerInfo consumer) {
+        List<MethodInvoker> invokers = new ArrayList<>(consumer.getObservers().size());
+        for (ConsumerInfo.Observer observer : consumer.getObservers()) {
+            invokers.add(MethodInvoker.ofObserver(beanManager, observer));
+        }
+        return new ObserverInvoker<>(consumer.getObservers(), invokers);
+    }
+
+    private ObserverInvoker(List<ConsumerInfo.Observer> observers, List<MethodInvoker> invokers) {
+        this.observers = observers;
+        this.invokers = invokers;
+    }
+
+    /**
+     *
+     * @param index
+     * @return a new invoker which only notifies the observer method with the given index
+     * @see #getObservers()
+     */
+    ObserverInvoker<T> forObserver(int index) {
+        return new ObserverInvoker<>(Collections.singletonList(observers.get(index)), Collections.singletonList(invokers.get(index)));
+    }
+
+    List<ConsumerInfo.Observer> getObservers() {
+        return observers;
+    }
+
+    /**
+     * Synchronously notifies all the observer methods.
+     *
+     * @param event
+     */
+    void notify(T event) {
+        for (MethodInvoker invoker : invokers) {
+            invoker.notify(event);
+        }
+    }
+
+}
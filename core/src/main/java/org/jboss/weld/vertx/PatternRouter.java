@@ -0,0 +1,218 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.SendContext;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Routes the messages sent to an address matching a pattern to the relevant handler. The router is registered as an event bus interceptor and dispatches the
+ * matching messages itself, i.e. no message consumer is registered for a pattern or for a concrete address.
+ * <p>
+ * A message sent point-to-point to a matching address is only delivered to the pattern handler. The regular consumers registered for the same address by other
+ * verticles do not receive the message. However, an address of a regular message consumer of this container is never routed, even if it matches a pattern.
+ * A published message is delivered to the pattern handler and also to all the regular consumers.
+ * <p>
+ * The routing is local only. The interceptor only sees the messages sent from the local event bus, a message sent to a matching address from another cluster
+ * node is not delivered to the pattern handler.
+ * <p>
+ * The match result is cached for each address, the cache is cleared once it reaches {@value #MAX_CACHED_ADDRESSES} addresses.
+ *
+ * @author Martin Kouba
+ * @see AddressTrie
+ */
+@SuppressWarnings("rawtypes")
+class PatternRouter implements Handler<SendContext> {
+
+    static final int MAX_CACHED_ADDRESSES = 1024;
+
+    // Marks the addresses which are not routed
+    private static final Handler<Message<Object>> PASS = message -> {
+    };
+
+    private final EventBus eventBus;
+
+    private final Context context;
+
+    private final AddressTrie<Handler<Message<Object>>> trie;
+
+    // Concrete address -> handler or PASS
+    private final ConcurrentMap<String, Handler<Message<Object>>> cache;
+
+    PatternRouter(EventBus eventBus, Context context) {
+        this.eventBus = eventBus;
+        this.context = context;
+        this.trie = new AddressTrie<>();
+        this.cache = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Must not be called once the router is registered as an interceptor.
+     *
+     * @param pattern
+     * @param handler
+     */
+    void add(String pattern, Handler<Message<Object>> handler) {
+        trie.put(pattern, handler);
+    }
+
+    /**
+     * The messages sent to the given address are never routed. Must not be called once the router is registered as an interceptor.
+     *
+     * @param address The address of a regular message consumer
+     */
+    void exclude(String address) {
+        trie.put(address, PASS);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void handle(SendContext sendContext) {
+        Message<Object> message = sendContext.message();
+        Handler<Message<Object>> handler = match(message.address());
+        if (handler == PASS) {
+            sendContext.next();
+            return;
+        }
+        Message<Object> routed = new RoutedMessage(message);
+        context.runOnContext(v -> handler.handle(routed));
+        if (!sendContext.send()) {
+            // Published messages are also delivered to the regular consumers
+            sendContext.next();
+        }
+    }
+
+    /**
+     * Removes the interceptor.
+     */
+    void close() {
+        eventBus.removeInterceptor(this);
+        cache.clear();
+    }
+
+    private Handler<Message<Object>> match(String address) {
+        if (!trie.mayMatch(address)) {
+            return PASS;
+        }
+        Handler<Message<Object>> handler = cache.get(address);
+        if (handler == null) {
+            handler = trie.match(address);
+            if (handler == null) {
+                handler = PASS;
+            }
+            if (cache.size() >= MAX_CACHED_ADDRESSES) {
+                cache.clear();
+            }
+            cache.put(address, handler);
+        }
+        return handler;
+    }
+
+    /**
+     * The mutable bodies are copied in the same way as if delivered by the event bus. Any other body is passed as is, i.e. the same way as if
+     * {@link LocalCodec} was used.
+     *
+     * @param body
+     * @return the body to deliver
+     */
+    static Object copy(Object body) {
+        if (body instanceof JsonObject) {
+            return ((JsonObject) body).copy();
+        } else if (body instanceof JsonArray) {
+            return ((JsonArray) body).copy();
+        } else if (body instanceof Buffer) {
+            return ((Buffer) body).copy();
+        } else if (body instanceof byte[]) {
+            return ((byte[]) body).clone();
+        }
+        return body;
+    }
+
+    /**
+     * Delegates to the sent message, the reply is sent to the reply address of the sent message.
+     */
+    private static class RoutedMessage implements Message<Object> {
+
+        private final Message<Object> delegate;
+
+        private final Object body;
+
+        RoutedMessage(Message<Object> delegate) {
+            this.delegate = delegate;
+            this.body = copy(delegate.body());
+        }
+
+        @Override
+        public String address() {
+            return delegate.address();
+        }
+
+        @Override
+        public MultiMap headers() {
+            return delegate.headers();
+        }
+
+        @Override
+        public Object body() {
+            return body;
+        }
+
+        @Override
+        public String replyAddress() {
+            return delegate.replyAddress();
+        }
+
+        @Override
+        public void reply(Object message) {
+            delegate.reply(message);
+        }
+
+        @Override
+        public <R> void reply(Object message, Handler<AsyncResult<Message<R>>> replyHandler) {
+            delegate.reply(message, replyHandler);
+        }
+
+        @Override
+        public void reply(Object message, DeliveryOptions options) {
+            delegate.reply(message, options);
+        }
+
+        @Override
+        public <R> void reply(Object message, DeliveryOptions options, Handler<AsyncResult<Message<R>>> replyHandler) {
+            delegate.reply(message, options, replyHandler);
+        }
+
+        @Override
+        public void fail(int failureCode, String message) {
+            delegate.fail(failureCode, message);
+        }
+
+    }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.List;
+
+/**
+ * A batch of Vertx messages sent to the same address.
+ * <p>
+ * An observer method must declare an event parameter of the type {@link VertxBatchEvent} and the {@link VertxConsumer} qualifier in order to be recognized as
+ * a batch message consumer. The messages are buffered and delivered once {@link VertxConsumer#maxBatchSize()} messages are available or
+ * {@link VertxConsumer#maxBatchLinger()} elapses, whichever comes first.
+ * <p>
+ * Each message may be replied to or failed separately using the corresponding {@link VertxEvent}. If an observer method throws an exception, all the messages
+ * from the batch fail.
+ *
+ * @author Martin Kouba
+ * @see VertxConsumer
+ */
+public interface VertxBatchEvent {
+
+    /**
+     *
+     * @return the address the messages were sent to
+     */
+    String getAddress();
+
+    /**
+     *
+     * @return the events in the order the messages were delivered
+     */
+    List<VertxEvent> getEvents();
+
+}
@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+
+/**
+ * An interface annotated with this annotation is a typed event bus client. An <code>@ApplicationScoped</code> bean implementing the interface is added
+ * automatically for each client interface used in an injection point, e.g.:
+ *
+ * <pre>
+ * &#64;VertxClient("price.address")
+ * interface PriceClient {
+ *
+ *     CompletionStage&lt;BigDecimal&gt; price(String productId);
+ *
+ *     &#64;VertxClient(value = "price.changed", publish = true)
+ *     void changed(JsonObject price);
+ * }
+ * </pre>
+ *
+ * Each client method must declare exactly one parameter - the message body. If a method returns <code>void</code> the message is sent (or published) without
+ * a reply handler. If a method returns {@link java.util.concurrent.CompletionStage} or {@link java.util.concurrent.CompletableFuture}, the returned stage is
+ * completed with the reply body converted to the type argument. A reply failure completes the stage exceptionally with {@link ReplyException}.
+ * <p>
+ * The {@link DeliveryOptions} of a method are built only once, when the client bean is created. The members declared on a method override the members
+ * declared on the interface.
+ *
+ * @author Martin Kouba
+ * @see VertxConsumer
+ */
+@Target({ TYPE, METHOD })
+@Retention(RUNTIME)
+public @interface VertxClient {
+
+    /**
+     *
+     * @return the address the messages are sent to
+     */
+    String value() default "";
+
+    /**
+     *
+     * @return the send timeout in milliseconds, <code>0</code> means the default timeout
+     * @see DeliveryOptions#setSendTimeout(long)
+     */
+    long sendTimeout() default 0;
+
+    /**
+     *
+     * @return the name of the codec, empty string means the default codec
+     * @see DeliveryOptions#setCodecName(String)
+     */
+    String codec() default "";
+
+    /**
+     * Only taken into account for methods returning <code>void</code>. A method publishes the messages if either the method or the interface declares
+     * <code>publish = true</code>.
+     *
+     * @return <code>true</code> if the messages should be published to all the consumers instead of sent to one of them
+     */
+    boolean publish() default false;
+
+    /**
+     * Only taken into account for methods returning {@link java.util.concurrent.CompletionStage} or {@link java.util.concurrent.CompletableFuture}. If
+     * enabled, the {@link WeldVerticle#DEADLINE_HEADER} derived from the send timeout is added to each message. Note that the delivery options must be copied
+     * for each message in that case. A method sets the header if either the method or the interface declares <code>deadline = true</code>.
+     *
+     * @return <code>true</code> if the deadline header should be set
+     */
+    boolean deadline() default false;
+
+}
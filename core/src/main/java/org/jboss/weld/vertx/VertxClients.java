@@ -0,0 +1,227 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
+
+/**
+ * Creates the implementations of {@link VertxClient} interfaces. A client instance is a JDK dynamic proxy. All the client methods, including the delivery
+ * options, are resolved once when the container is bootstrapped, i.e. an invocation only looks up the prepared method and sends the message.
+ *
+ * @author Martin Kouba
+ * @see VertxClient
+ */
+final class VertxClients {
+
+    private VertxClients() {
+    }
+
+    /**
+     *
+     * @param type
+     * @return <code>true</code> if the given type is a client interface
+     */
+    static boolean isClient(Type type) {
+        return type instanceof Class && ((Class<?>) type).isInterface() && ((Class<?>) type).isAnnotationPresent(VertxClient.class);
+    }
+
+    /**
+     *
+     * @param clientType
+     * @return the client methods
+     * @throws IllegalStateException If the client interface is not valid
+     */
+    static Map<Method, ClientMethod> resolve(Class<?> clientType) {
+        Map<Method, ClientMethod> methods = new HashMap<>();
+        for (Method method : clientType.getMethods()) {
+            ClientMethod clientMethod = ClientMethod.of(clientType, method);
+            if (clientMethod != null) {
+                methods.put(method, clientMethod);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     *
+     * @param clientType
+     * @param methods
+     * @param eventBus
+     * @param bodyConverters
+     * @return a new client instance
+     * @see #resolve(Class)
+     */
+    static <T> T create(Class<T> clientType, Map<Method, ClientMethod> methods, EventBus eventBus, BodyConverters bodyConverters) {
+        return clientType.cast(Proxy.newProxyInstance(clientType.getClassLoader(), new Class<?>[] { clientType },
+                new ClientInvocationHandler(clientType, eventBus, bodyConverters, methods)));
+    }
+
+    private static class ClientInvocationHandler implements InvocationHandler {
+
+        private final Class<?> clientType;
+
+        private final EventBus eventBus;
+
+        private final BodyConverters bodyConverters;
+
+        private final Map<Method, ClientMethod> methods;
+
+        ClientInvocationHandler(Class<?> clientType, EventBus eventBus, BodyConverters bodyConverters, Map<Method, ClientMethod> methods) {
+            this.clientType = clientType;
+            this.eventBus = eventBus;
+            this.bodyConverters = bodyConverters;
+            this.methods = methods;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            ClientMethod clientMethod = methods.get(method);
+            if (clientMethod != null) {
+                return clientMethod.invoke(eventBus, bodyConverters, args[0]);
+            }
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return clientType.getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        }
+
+    }
+
+    static class ClientMethod {
+
+        private final String address;
+
+        private final DeliveryOptions deliveryOptions;
+
+        private final boolean publish;
+
+        private final boolean deadline;
+
+        // null for methods without a reply
+        private final Class<?> replyType;
+
+        /**
+         *
+         * @param clientType
+         * @param method
+         * @return the client method or <code>null</code> if the method is a static method or a method declared by {@link Object}
+         * @throws IllegalStateException If the method is not a valid client method
+         */
+        static ClientMethod of(Class<?> clientType, Method method) {
+            if (Modifier.isStatic(method.getModifiers()) || Object.class.equals(method.getDeclaringClass())) {
+                return null;
+            }
+            if (method.isDefault()) {
+                throw new IllegalStateException("Default methods are not supported by client interfaces: " + method);
+            }
+            if (method.getParameterCount() != 1) {
+                throw new IllegalStateException("A client method must declare exactly one parameter: " + method);
+            }
+            VertxClient typeClient = clientType.getAnnotation(VertxClient.class);
+            VertxClient methodClient = method.getAnnotation(VertxClient.class);
+            String address = methodClient != null && !methodClient.value().isEmpty() ? methodClient.value() : typeClient.value();
+            if (address.isEmpty()) {
+                throw new IllegalStateException("No address declared for the client method: " + method);
+            }
+            long sendTimeout = methodClient != null && methodClient.sendTimeout() > 0 ? methodClient.sendTimeout() : typeClient.sendTimeout();
+            String codec = methodClient != null && !methodClient.codec().isEmpty() ? methodClient.codec() : typeClient.codec();
+            DeliveryOptions deliveryOptions = new DeliveryOptions();
+            if (sendTimeout > 0) {
+                deliveryOptions.setSendTimeout(sendTimeout);
+            }
+            if (!codec.isEmpty()) {
+                deliveryOptions.setCodecName(codec);
+            }
+            Class<?> replyType = null;
+            if (CompletionStage.class.equals(method.getReturnType()) || CompletableFuture.class.equals(method.getReturnType())) {
+                replyType = getReplyType(method.getGenericReturnType());
+            } else if (!void.class.equals(method.getReturnType())) {
+                throw new IllegalStateException("A client method must return void, CompletionStage or CompletableFuture: " + method);
+            }
+            // A boolean member declared on a method cannot be distinguished from the default value
+            boolean publish = typeClient.publish() || (methodClient != null && methodClient.publish());
+            boolean deadline = typeClient.deadline() || (methodClient != null && methodClient.deadline());
+            return new ClientMethod(address, deliveryOptions, publish, deadline, replyType);
+        }
+
+        private ClientMethod(String address, DeliveryOptions deliveryOptions, boolean publish, boolean deadline, Class<?> replyType) {
+            this.address = address;
+            this.deliveryOptions = deliveryOptions;
+            this.publish = publish;
+            this.deadline = deadline;
+            this.replyType = replyType;
+        }
+
+        Object invoke(EventBus eventBus, BodyConverters bodyConverters, Object body) {
+            if (replyType == null) {
+                // The delivery options are not modified by the event bus
+                if (publish) {
+                    eventBus.publish(address, body, deliveryOptions);
+                } else {
+                    eventBus.send(address, body, deliveryOptions);
+                }
+                return null;
+            }
+            CompletableFuture<Object> reply = new CompletableFuture<>();
+            eventBus.send(address, body, deadline ? WeldVerticle.withDeadline(deliveryOptions) : deliveryOptions, result -> {
+                if (result.succeeded()) {
+                    try {
+                        reply.complete(bodyConverters.convert(result.result().body(), replyType));
+                    } catch (RuntimeException e) {
+                        reply.completeExceptionally(e);
+                    }
+                } else {
+                    reply.completeExceptionally(result.cause());
+                }
+            });
+            return reply;
+        }
+
+        private static Class<?> getReplyType(Type returnType) {
+            if (returnType instanceof ParameterizedType) {
+                Type replyType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+                if (replyType instanceof Class) {
+                    return (Class<?>) replyType;
+                }
+                if (replyType instanceof ParameterizedType) {
+                    return (Class<?>) ((ParameterizedType) replyType).getRawType();
+                }
+            }
+            return Object.class;
+        }
+
+    }
+
+}
@@ -26,13 +26,25 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 import javax.enterprise.util.AnnotationLiteral;
+import javax.enterprise.util.Nonbinding;
 import javax.inject.Qualifier;
 
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.json.JsonObject;
+
 /**
  * An observer method must declare an event parameter with this qualifier in order to be recognized as a Vertx message consumer.
+ * <p>
+ * Alternatively, a non-private business method of a managed bean may be annotated with this annotation, i.e. it becomes a consumer method. A parameter of
+ * type {@link VertxEvent} is resolved to the current event, any other parameter is resolved to the message body converted to the parameter type. The return
+ * value is used as the reply. If a {@link java.util.concurrent.CompletionStage} is returned, the message is replied to once the stage is completed. At most
+ * one consumer method may be declared for an address and it may not be combined with observer methods.
  *
  * @author Martin Kouba
  * @see VertxEvent
+ * @see VertxBatchEvent
  */
 @Qualifier
 @Target({ TYPE, METHOD, PARAMETER, FIELD })
@@ -40,11 +52,219 @@ import javax.inject.Qualifier;
 public @interface VertxConsumer {
 
     /**
+     * The address may also be a pattern where the <code>*</code> segment matches exactly one segment of an address, e.g. <code>orders.*.created</code>. A
+     * local message consumer is registered for each matching address once a message is sent to the address from the local event bus. The messages sent from
+     * other cluster nodes are not routed. {@link VertxEvent#getAddress()} returns the actual address then.
      *
      * @return the address the consumer will be registered to
      */
     String value();
 
+    /**
+     * If set to <code>false</code> the observers are notified directly on the event loop thread, i.e. {@link Vertx#executeBlocking(io.vertx.core.Handler, io.vertx.core.Handler)}
+     * is not used. Such observers must never block.
+     * <p>
+     * If there are multiple observers for the same address, the observers are notified on the event loop only if all of them are non-blocking.
+     *
+     * @return <code>true</code> if the observers may block, <code>false</code> otherwise
+     */
+    @Nonbinding
+    boolean blocking() default true;
+
+    /**
+     * If set to <code>true</code> the messages are processed serially together with all other ordered tasks of the {@link WeldVerticle} context, i.e. a slow
+     * observer may also delay the processing of messages sent to other addresses. Ignored for non-blocking observers and virtual thread consumers.
+     * <p>
+     * If there are multiple observers for the same address, the messages are processed in order if at least one of them requires ordered execution.
+     *
+     * @return <code>true</code> if the messages must be processed in order, <code>false</code> otherwise
+     * @see Vertx#executeBlocking(io.vertx.core.Handler, boolean, io.vertx.core.Handler)
+     */
+    @Nonbinding
+    boolean ordered() default true;
+
+    /**
+     * The max number of messages processed concurrently for the address. Only taken into account if the messages are not processed in order. The excess
+     * messages are queued until a running notification completes.
+     * <p>
+     * If there are multiple observers for the same address, the lowest positive value is used.
+     *
+     * @return the max number of messages processed concurrently, <code>0</code> means no limit
+     */
+    @Nonbinding
+    int maxConcurrency() default 0;
+
+    /**
+     * The name of a dedicated worker pool used to notify the observers. The pools are created when the {@link WeldVerticle} is started and closed when the
+     * verticle is stopped. If empty, the default Vert.x worker pool is used. Ignored for non-blocking observers.
+     * <p>
+     * If the messages are processed in order, the notifications for the address are executed serially on the dedicated pool. Otherwise, {@link #maxConcurrency()}
+     * is taken into account.
+     * <p>
+     * All the observers for the same address must declare the same worker pool.
+     *
+     * @return the name of the worker pool
+     */
+    @Nonbinding
+    String workerPool() default "";
+
+    /**
+     * The size of the worker pool. If multiple observers declare the same worker pool, the largest value is used. The size may be also overriden in the
+     * deployment configuration.
+     *
+     * @return the size of the worker pool, <code>0</code> means the default Vert.x worker pool size
+     * @see #workerPool()
+     * @see WeldVerticle#WORKER_POOLS_CONFIG_KEY
+     */
+    @Nonbinding
+    int workerPoolSize() default 0;
+
+    /**
+     * If set to <code>true</code> each notification is executed on a new virtual thread, i.e. a blocked observer does not occupy a platform worker thread. The
+     * result is always processed on the {@link WeldVerticle} context. Ignored for non-blocking observers. If set, {@link #workerPool()} is ignored.
+     * <p>
+     * Virtual threads are only available on Java 21 and newer. On older runtimes the default Vert.x worker pool is used instead and {@link #ordered()} is taken
+     * into account as for any other blocking consumer.
+     * <p>
+     * If there are multiple observers for the same address, virtual threads are only used if all of them declare this member.
+     * <p>
+     * Virtual thread consumers are never ordered, i.e. {@link #ordered()} is ignored, so that many messages may be in flight at the same time. Use
+     * {@link #maxConcurrency()} to limit the number of concurrent notifications, e.g. <code>maxConcurrency = 1</code> to process the messages serially, or
+     * {@link #partitionKey()} to keep the order per key.
+     *
+     * @return <code>true</code> if virtual threads should be used, <code>false</code> otherwise
+     */
+    @Nonbinding
+    boolean virtualThread() default false;
+
+    /**
+     * The max number of messages delivered in a single {@link VertxBatchEvent}. Only taken into account for observers of {@link VertxBatchEvent}.
+     * <p>
+     * If there are multiple observers for the same address, the lowest value is used.
+     *
+     * @return the max number of messages in a batch
+     */
+    @Nonbinding
+    int maxBatchSize() default 100;
+
+    /**
+     * The max time in milliseconds the first message of a batch may wait for other messages. Only taken into account for observers of {@link VertxBatchEvent}.
+     * <p>
+     * If there are multiple observers for the same address, the lowest value is used.
+     *
+     * @return the max linger time in milliseconds
+     */
+    @Nonbinding
+    long maxBatchLinger() default 10;
+
+    /**
+     * The max number of messages accepted but not completed yet, i.e. queued or being processed. If the limit is reached, {@link #overflow()} determines what
+     * happens to the subsequent messages.
+     * <p>
+     * If there are multiple observers for the same address, the lowest positive value is used.
+     *
+     * @return the max number of messages in flight, <code>0</code> means no limit
+     * @see ConsumerMetrics#getInFlight(String)
+     */
+    @Nonbinding
+    int maxInFlight() default 0;
+
+    /**
+     * If there are multiple observers for the same address, {@link Overflow#PAUSE} is used if at least one of them declares it.
+     *
+     * @return the overflow strategy
+     * @see #maxInFlight()
+     */
+    @Nonbinding
+    Overflow overflow() default Overflow.FAIL;
+
+    /**
+     * If set to <code>true</code>, the observers for the same address are notified in parallel, each one in a separate task. Each observer receives a separate
+     * {@link VertxEvent} instance. The message fails as soon as any observer fails. Otherwise, the message is replied to once the {@link #replyObserver()}
+     * completes or all the observers complete. If there is no reply observer, the first non-null reply is used.
+     * <p>
+     * The parallel notification is used if at least one of the observers declares it. The notifications are never ordered then. This setting is ignored for
+     * {@link VertxBatchEvent} observers.
+     *
+     * @return <code>true</code> if the observers should be notified in parallel
+     */
+    @Nonbinding
+    boolean parallel() default false;
+
+    /**
+     * At most one observer for an address may be designated as the reply observer.
+     *
+     * @return <code>true</code> if the reply of this observer completes the message for parallel notification
+     * @see #parallel()
+     */
+    @Nonbinding
+    boolean replyObserver() default false;
+
+    /**
+     * A local consumer is not propagated to the other nodes of a clustered event bus, i.e. it only receives the messages sent from the local event bus. The
+     * local consumer is only used if all the observers for the same address declare it.
+     *
+     * @return <code>true</code> if the consumer should be registered with {@link EventBus#localConsumer(String)}
+     */
+    @Nonbinding
+    boolean local() default false;
+
+    /**
+     * The number of {@link MessageConsumer} instances registered for the address. Each instance is registered on a different event loop context so that the
+     * event bus distributes the messages among the event loops. The additional contexts belong to child verticles undeployed together with the
+     * {@link WeldVerticle}. Ordered notifications are only executed serially per instance. This setting is ignored if the
+     * address is a pattern.
+     * <p>
+     * If there are multiple observers for the same address, the highest value is used.
+     *
+     * @return the number of consumer instances
+     */
+    @Nonbinding
+    int instances() default 1;
+
+    /**
+     * If set, the messages with the same partition key are processed serially while the messages with different keys may be processed in parallel. If the
+     * message body is a {@link JsonObject}, the key is the value of the body field of the given name. Otherwise, or if there is no such field, the message
+     * header of the same name is used. The messages without a key are not ordered. If set, {@link #ordered()} and {@link #maxConcurrency()} are ignored. This
+     * setting is ignored for non-blocking observers, {@link VertxBatchEvent} observers and if the observers are notified in {@link #parallel()}.
+     * <p>
+     * All the observers for the same address must declare the same partition key. A partition key may not be combined with multiple {@link #instances()}
+     * because each instance would hash the keys to its own lanes.
+     *
+     * @return the name of the header or body field holding the partition key
+     * @see #partitions()
+     */
+    @Nonbinding
+    String partitionKey() default "";
+
+    /**
+     * The number of serial lanes the partition keys are hashed to, i.e. the max number of messages processed concurrently for the address. Only taken into
+     * account if {@link #partitionKey()} is set.
+     * <p>
+     * If there are multiple observers for the same address, the highest value is used.
+     *
+     * @return the number of partitions, <code>0</code> means the number of available processors
+     */
+    @Nonbinding
+    int partitions() default 0;
+
+    enum Overflow {
+
+        /**
+         * The message fails immediately with {@link WeldVerticle#OVERFLOW_FAILURE_CODE}.
+         */
+        FAIL,
+        /**
+         * The message consumer is paused until the number of messages in flight drops below the limit. Note that the event bus only buffers a limited number of
+         * messages for a paused consumer and discards the rest.
+         *
+         * @see MessageConsumer#pause()
+         * @see MessageConsumer#setMaxBufferedMessages(int)
+         */
+        PAUSE
+
+    }
+
     public final class Literal extends AnnotationLiteral<VertxConsumer> implements VertxConsumer {
 
         private static final long serialVersionUID = 1L;
@@ -59,6 +279,70 @@ public @interface VertxConsumer {
             return value;
         }
 
+        public boolean blocking() {
+            return true;
+        }
+
+        public boolean ordered() {
+            return true;
+        }
+
+        public int maxConcurrency() {
+            return 0;
+        }
+
+        public String workerPool() {
+            return "";
+        }
+
+        public int workerPoolSize() {
+            return 0;
+        }
+
+        public boolean virtualThread() {
+            return false;
+        }
+
+        public int maxBatchSize() {
+            return 100;
+        }
+
+        public long maxBatchLinger() {
+            return 10;
+        }
+
+        public int maxInFlight() {
+            return 0;
+        }
+
+        public Overflow overflow() {
+            return Overflow.FAIL;
+        }
+
+        public boolean parallel() {
+            return false;
+        }
+
+        public boolean replyObserver() {
+            return false;
+        }
+
+        public boolean local() {
+            return false;
+        }
+
+        public int instances() {
+            return 1;
+        }
+
+        public String partitionKey() {
+            return "";
+        }
+
+        public int partitions() {
+            return 0;
+        }
+
         private Literal(String value) {
             this.value = value;
         }
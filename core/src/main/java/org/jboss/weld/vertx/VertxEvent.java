@@ -16,11 +16,17 @@
  */
 package org.jboss.weld.vertx;
 
+import java.util.concurrent.CompletableFuture;
+
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 
 /**
  * Vertx {@link Message} wrapper.
@@ -53,6 +59,18 @@ public interface VertxEvent {
      */
     Object getMessageBody();
 
+    /**
+     * Converts the message body to the given type. The converted body is cached, i.e. if there are multiple observers for the same address the body is only
+     * converted once. There are built-in converters for {@link String}, {@link Buffer}, {@link JsonObject}, {@link JsonArray}, {@link Integer}, {@link Long},
+     * {@link Double} and {@link Boolean}. Custom converters may be provided as {@link BodyConverter} beans.
+     *
+     * @param type
+     * @return the message body converted to the given type
+     * @throws IllegalArgumentException If no converter exists for the given type
+     * @throws RuntimeException If the conversion fails
+     */
+    <T> T getMessageBody(Class<T> type);
+
     /**
      *
      * @return the reply address, or null in case of the message was sent without a reply handler
@@ -75,6 +93,19 @@ public interface VertxEvent {
      */
     void fail(int code, String message);
 
+    /**
+     * The message is not replied to when the observer method returns. Instead, the reply is sent once the returned future is completed, i.e. the observer does
+     * not need to block a thread while waiting for the data. If the future is completed exceptionally with {@link ReplyException}, the failure code and
+     * message are used to fail the message. Any other exception results in {@link WeldVerticle#OBSERVER_FAILURE_CODE}.
+     * <p>
+     * The returned future must be always completed. Subsequent invocations return the same future. If {@link #fail(int, String)} is called before the observer
+     * method returns, the message fails immediately. If the future is not completed before the {@link WeldVerticle#DEADLINE_HEADER} of the message, or the
+     * default send timeout if there is no deadline, the message fails with {@link WeldVerticle#TIMEOUT_FAILURE_CODE} and a later completion is ignored.
+     *
+     * @return the future reply
+     */
+    CompletableFuture<Object> replyLater();
+
     /**
      * Send/publish messages using the Vertx event bus.
      *
@@ -91,8 +122,26 @@ public interface VertxEvent {
 
         VertxMessage setDeliveryOptions(DeliveryOptions deliveryOptions);
 
+        /**
+         * If enabled, the {@link WeldVerticle#DEADLINE_HEADER} derived from the send timeout is added to each message sent with a reply handler so that the
+         * recipient may skip the processing if the reply is not expected anymore. Note that the delivery options must be copied for each message in that case.
+         * The deadline is disabled by default.
+         *
+         * @param deadline
+         * @return self
+         * @see #send(Object, Handler)
+         */
+        VertxMessage setDeadline(boolean deadline);
+
         void send(Object message);
 
+        /**
+         * The {@link WeldVerticle#DEADLINE_HEADER} is only set if enabled, otherwise the delivery options are used as is.
+         *
+         * @param message
+         * @param replyHandler
+         * @see #setDeadline(boolean)
+         */
         void send(Object message, Handler<AsyncResult<Message<Object>>> replyHandler);
 
         void publish(Object message);
@@ -17,21 +17,36 @@
 package org.jboss.weld.vertx;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Produces;
 import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.AnnotatedMethod;
+import javax.enterprise.inject.spi.AnnotatedParameter;
 import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.BeforeShutdown;
 import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.inject.spi.InjectionPoint;
 import javax.enterprise.inject.spi.ObserverMethod;
 import javax.enterprise.inject.spi.PassivationCapable;
+import javax.enterprise.inject.spi.ProcessBean;
+import javax.enterprise.inject.spi.ProcessInjectionPoint;
+import javax.enterprise.inject.spi.ProcessManagedBean;
 import javax.enterprise.inject.spi.ProcessObserverMethod;
 
 import org.jboss.weld.literal.AnyLiteral;
@@ -39,11 +54,16 @@ import org.jboss.weld.literal.DefaultLiteral;
 
 import io.vertx.core.Context;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
 /**
- * Detects all the observer methods that should become message consumers and adds custom beans for {@link Vertx} and {@link Context} of the {@link WeldVerticle}
+ * Detects all the observer methods and consumer methods that should become message consumers, all the {@link MessageCodec} beans and all the
+ * {@link BodyConverter} beans. Also adds custom beans for {@link Vertx}, {@link Context} and {@link ConsumerMetrics} of the {@link WeldVerticle} and for the
+ * {@link VertxClient} interfaces used in injection points. Finally, registers the contexts for {@link ContextScoped} and {@link WorkerThreadScoped}
+ * beans.
  *
  * @author Martin Kouba
  */
@@ -51,29 +71,108 @@ public class VertxExtension implements Extension {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(VertxExtension.class.getName());
 
-    private final Set<String> consumerAddresses;
+    private final Map<String, ConsumerInfo> consumers;
 
     private final Vertx vertx;
 
     private final Context context;
 
+    private final ConsumerMetricsImpl metrics;
+
+    private final List<Bean<?>> codecBeans;
+
+    private final List<Bean<?>> converterBeans;
+
+    private final Set<Class<?>> clientTypes;
+
+    // The beans declaring observer methods, used to resolve the declaring beans of the VertxEvent observers
+    private final Map<Class<?>, Bean<?>> observerBeans;
+
+    private final ContextScopedContext contextScopedContext;
+
+    private final WorkerThreadScopedContext workerThreadScopedContext;
+
+    private BodyConverters bodyConverters;
+
     public VertxExtension(Vertx vertx, Context context) {
-        this.consumerAddresses = new HashSet<>();
+        this.consumers = new HashMap<>();
+        this.codecBeans = new ArrayList<>();
+        this.converterBeans = new ArrayList<>();
+        this.clientTypes = new LinkedHashSet<>();
+        this.observerBeans = new HashMap<>();
+        this.contextScopedContext = new ContextScopedContext();
+        this.contextScopedContext.addContext(context);
+        this.workerThreadScopedContext = new WorkerThreadScopedContext();
         this.vertx = vertx;
         this.context = context;
+        this.metrics = new ConsumerMetricsImpl();
     }
 
     public void detectMessageConsumers(@Observes ProcessObserverMethod<VertxEvent, ?> event) {
-        String vertxAddress = getVertxAddress(event.getObserverMethod());
-        if (vertxAddress == null) {
-            LOGGER.warn("VertxEvent observer found but no @VertxConsumer declared: {0}", event.getObserverMethod());
-            return;
+        detectMessageConsumer(event, false);
+    }
+
+    public void detectBatchMessageConsumers(@Observes ProcessObserverMethod<VertxBatchEvent, ?> event) {
+        detectMessageConsumer(event, true);
+    }
+
+    /**
+     * A consumer method is a business method annotated with {@link VertxConsumer} which is neither a producer method nor an observer method.
+     *
+     * @param event
+     */
+    public void detectConsumerMethods(@Observes ProcessManagedBean<?> event) {
+        for (AnnotatedMethod<?> method : event.getAnnotatedBeanClass().getMethods()) {
+            if (isObserverMethod(method)) {
+                observerBeans.put(event.getBean().getBeanClass(), event.getBean());
+            }
+            VertxConsumer vertxConsumer = method.getAnnotation(VertxConsumer.class);
+            if (vertxConsumer == null || method.isAnnotationPresent(Produces.class) || isObserverMethod(method)) {
+                continue;
+            }
+            if (Modifier.isPrivate(method.getJavaMember().getModifiers())) {
+                event.addDefinitionError(new IllegalStateException("A consumer method must not be private: " + method.getJavaMember()));
+                continue;
+            }
+            if (!method.isStatic() && MethodInvoker.getReferenceType(event.getBean(), method.getJavaMember().getDeclaringClass()) == null) {
+                event.addDefinitionError(new IllegalStateException(
+                        "No bean type of " + event.getBean() + " is assignable to the declaring class of the consumer method: " + method.getJavaMember()));
+                continue;
+            }
+            LOGGER.debug("Vertx consumer method found: {0}", method.getJavaMember());
+            try {
+                getConsumer(vertxConsumer.value()).mergeMethod(vertxConsumer, event.getBean(), method);
+            } catch (IllegalStateException e) {
+                event.addDefinitionError(e);
+            }
         }
-        LOGGER.debug("Vertx message consumer found: {0}", event.getObserverMethod());
-        consumerAddresses.add(vertxAddress);
     }
 
-    public void afterBeanDiscovery(@Observes AfterBeanDiscovery event) {
+    public void detectMessageCodecs(@Observes ProcessBean<?> event) {
+        if (MessageCodecs.getCodecType(event.getBean()) != null) {
+            LOGGER.debug("Message codec found: {0}", event.getBean());
+            codecBeans.add(event.getBean());
+        }
+    }
+
+    public void detectBodyConverters(@Observes ProcessBean<?> event) {
+        if (BodyConverters.getConverterType(event.getBean()) != null) {
+            LOGGER.debug("Body converter found: {0}", event.getBean());
+            converterBeans.add(event.getBean());
+        }
+    }
+
+    public void detectClients(@Observes ProcessInjectionPoint<?, ?> event) {
+        Type type = event.getInjectionPoint().getType();
+        if (VertxClients.isClient(type) && clientTypes.add((Class<?>) type)) {
+            LOGGER.debug("Vertx client found: {0}", type);
+        }
+    }
+
+    public void afterBeanDiscovery(@Observes AfterBeanDiscovery event, BeanManager beanManager) {
+        resolveObserverBeans(event);
+        event.addContext(contextScopedContext);
+        event.addContext(workerThreadScopedContext);
         // Allow to inject Vertx used to deploy the WeldVerticle
         event.addBean(new VertxBean<Vertx>(Vertx.class) {
             @Override
@@ -81,22 +180,124 @@ public class VertxExtension implements Extension {
                 return vertx;
             }
         });
-        // Allow to inject Context of the WeldVerticle
+        // Allow to inject Context of the WeldVerticle - if the container is shared, the context of the instance which bootstrapped the container
         event.addBean(new VertxBean<Context>(Context.class) {
             @Override
             public Context create(CreationalContext<Context> creationalContext) {
                 return context;
             }
         });
+        // Allow to inject ConsumerMetrics of the WeldVerticle
+        event.addBean(new VertxBean<ConsumerMetrics>(ConsumerMetrics.class) {
+            @Override
+            public ConsumerMetrics create(CreationalContext<ConsumerMetrics> creationalContext) {
+                return metrics;
+            }
+        });
+        for (Class<?> clientType : clientTypes) {
+            Map<Method, VertxClients.ClientMethod> methods;
+            try {
+                methods = VertxClients.resolve(clientType);
+            } catch (IllegalStateException e) {
+                event.addDefinitionError(e);
+                continue;
+            }
+            event.addBean(new ClientBean(clientType, methods, beanManager));
+        }
+    }
+
+    public void beforeShutdown(@Observes BeforeShutdown event) {
+        contextScopedContext.destroyAll();
+        workerThreadScopedContext.destroyAll();
+    }
+
+    private void detectMessageConsumer(ProcessObserverMethod<?, ?> event, boolean batch) {
+        VertxConsumer vertxConsumer = getVertxConsumer(event.getObserverMethod());
+        if (vertxConsumer == null) {
+            LOGGER.warn("{0} observer found but no @VertxConsumer declared: {1}", batch ? "VertxBatchEvent" : "VertxEvent", event.getObserverMethod());
+            return;
+        }
+        if (event.getAnnotatedMethod() == null) {
+            event.addDefinitionError(
+                    new IllegalStateException("Only observer methods declared by beans may become message consumers: " + event.getObserverMethod()));
+            return;
+        }
+        LOGGER.debug("Vertx message consumer found: {0}", event.getObserverMethod());
+        try {
+            ConsumerInfo consumer = getConsumer(vertxConsumer.value());
+            consumer.merge(vertxConsumer, batch);
+            consumer.addObserver(event.getObserverMethod(), event.getAnnotatedMethod());
+        } catch (IllegalStateException e) {
+            event.addDefinitionError(e);
+        }
+    }
+
+    private void resolveObserverBeans(AfterBeanDiscovery event) {
+        for (ConsumerInfo consumer : consumers.values()) {
+            for (ConsumerInfo.Observer observer : consumer.getObservers()) {
+                Bean<?> bean = observerBeans.get(observer.getObserverMethod().getBeanClass());
+                if (observer.getMethod().isStatic()) {
+                    observer.setBean(bean);
+                } else if (bean == null || MethodInvoker.getReferenceType(bean, observer.getMethod().getJavaMember().getDeclaringClass()) == null) {
+                    event.addDefinitionError(new IllegalStateException(
+                            "No bean type of the declaring bean is assignable to the declaring class of: " + observer.getMethod().getJavaMember()));
+                } else {
+                    observer.setBean(bean);
+                }
+            }
+        }
+    }
+
+    private ConsumerInfo getConsumer(String address) {
+        ConsumerInfo consumer = consumers.get(address);
+        if (consumer == null) {
+            consumer = new ConsumerInfo(address);
+            consumers.put(address, consumer);
+        }
+        return consumer;
+    }
+
+    private boolean isObserverMethod(AnnotatedMethod<?> method) {
+        for (AnnotatedParameter<?> parameter : method.getParameters()) {
+            if (parameter.isAnnotationPresent(Observes.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Collection<ConsumerInfo> getConsumers() {
+        return consumers.values();
     }
 
-    Set<String> getConsumerAddresses() {
-        return consumerAddresses;
+    ConsumerMetricsImpl getMetrics() {
+        return metrics;
     }
 
-    private String getVertxAddress(ObserverMethod<?> observerMethod) {
+    ContextScopedContext getContextScopedContext() {
+        return contextScopedContext;
+    }
+
+    List<Bean<?>> getCodecBeans() {
+        return codecBeans;
+    }
+
+    /**
+     * The converters are shared by the message consumers and the clients.
+     *
+     * @param beanManager
+     * @return the body converters, created lazily
+     */
+    synchronized BodyConverters getBodyConverters(BeanManager beanManager) {
+        if (bodyConverters == null) {
+            bodyConverters = BodyConverters.create(beanManager, converterBeans);
+        }
+        return bodyConverters;
+    }
+
+    private VertxConsumer getVertxConsumer(ObserverMethod<?> observerMethod) {
         Annotation qualifier = getQualifier(observerMethod, VertxConsumer.class);
-        return qualifier != null ? ((VertxConsumer) qualifier).value() : null;
+        return qualifier != null ? (VertxConsumer) qualifier : null;
     }
 
     private Annotation getQualifier(ObserverMethod<?> observerMethod, Class<? extends Annotation> annotationType) {
@@ -108,6 +309,32 @@ public class VertxExtension implements Extension {
         return null;
     }
 
+    /**
+     * The client methods are resolved when the bean is added, the converters are shared with the message consumers.
+     */
+    private class ClientBean extends VertxBean<Object> {
+
+        private final Class<?> clientType;
+
+        private final Map<Method, VertxClients.ClientMethod> methods;
+
+        private final BeanManager beanManager;
+
+        ClientBean(Class<?> clientType, Map<Method, VertxClients.ClientMethod> methods, BeanManager beanManager) {
+            super(clientType);
+            this.clientType = clientType;
+            this.methods = methods;
+            this.beanManager = beanManager;
+        }
+
+        @Override
+        public Object create(CreationalContext<Object> creationalContext) {
+            EventBus eventBus = vertx.eventBus();
+            return VertxClients.create(clientType, methods, eventBus, getBodyConverters(beanManager));
+        }
+
+    }
+
     private abstract class VertxBean<T> implements Bean<T>, PassivationCapable {
 
         private final Set<Type> beanTypes;
@@ -0,0 +1,247 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * The build-time index of all the {@value #RESOURCE_NAME} resources available on the classpath. Each line of an index resource consists of the entry type and
+ * the binary class name, e.g. <code>bean org.acme.Service</code>.
+ *
+ * @author Martin Kouba
+ * @see VertxIndexProcessor
+ */
+public final class VertxIndex {
+
+    public static final String RESOURCE_NAME = "META-INF/weld-vertx.idx";
+
+    static final String BEAN = "bean";
+
+    static final String ROUTE = "route";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VertxIndex.class.getName());
+
+    private static final String BEANS_XML = "META-INF/beans.xml";
+
+    private static final VertxIndex EMPTY = new VertxIndex(Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+
+    private final Set<String> beanClasses;
+
+    private final Set<String> routeHandlers;
+
+    // The classpath entries containing an index resource
+    private final Set<String> archives;
+
+    private VertxIndex(Set<String> beanClasses, Set<String> routeHandlers, Set<String> archives) {
+        this.beanClasses = beanClasses;
+        this.routeHandlers = routeHandlers;
+        this.archives = archives;
+    }
+
+    /**
+     *
+     * @param classLoader
+     * @return the merged index, never <code>null</code>
+     */
+    public static VertxIndex load(ClassLoader classLoader) {
+        Enumeration<URL> resources;
+        try {
+            resources = classLoader.getResources(RESOURCE_NAME);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to load the index", e);
+            return EMPTY;
+        }
+        if (!resources.hasMoreElements()) {
+            return EMPTY;
+        }
+        Set<String> beanClasses = new LinkedHashSet<>();
+        Set<String> routeHandlers = new HashSet<>();
+        Set<String> archives = new HashSet<>();
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            LOGGER.debug("Loading index: {0}", resource);
+            archives.add(getArchive(resource, RESOURCE_NAME));
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.trim().split(" ");
+                    if (parts.length < 2) {
+                        continue;
+                    }
+                    switch (parts[0]) {
+                        case BEAN:
+                            beanClasses.add(parts[1]);
+                            break;
+                        case ROUTE:
+                            routeHandlers.add(parts[1]);
+                            break;
+                        default:
+                            LOGGER.warn("Unsupported index entry: {0}", line);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Unable to read the index: " + resource, e);
+                return EMPTY;
+            }
+        }
+        return new VertxIndex(beanClasses, routeHandlers, archives);
+    }
+
+    /**
+     *
+     * @param type
+     * @return <code>true</code> if the entry type is supported
+     */
+    static boolean isSupported(String type) {
+        return BEAN.equals(type) || ROUTE.equals(type);
+    }
+
+    /**
+     *
+     * @return <code>true</code> if no index resource was found
+     */
+    public boolean isEmpty() {
+        return beanClasses.isEmpty() && routeHandlers.isEmpty();
+    }
+
+    /**
+     *
+     * @return the names of the classes with a bean defining annotation
+     */
+    public Set<String> getBeanClasses() {
+        return Collections.unmodifiableSet(beanClasses);
+    }
+
+    /**
+     * A bean archive is a classpath entry with <code>META-INF/beans.xml</code>. An archive which was not compiled with the annotation processor has no index.
+     *
+     * @param classLoader
+     * @return the bean archives without an index resource
+     */
+    public List<String> getUnindexedBeanArchives(ClassLoader classLoader) {
+        List<String> unindexed = new ArrayList<>();
+        try {
+            Enumeration<URL> beansXmls = classLoader.getResources(BEANS_XML);
+            while (beansXmls.hasMoreElements()) {
+                String archive = getArchive(beansXmls.nextElement(), BEANS_XML);
+                if (!archives.contains(archive)) {
+                    unindexed.add(archive);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to find bean archives", e);
+        }
+        return unindexed;
+    }
+
+    /**
+     * The index corresponds to the <code>annotated</code> bean discovery mode and the interceptors, decorators and alternatives are not enabled. Therefore, the
+     * index may only replace the discovery of an archive whose <code>beans.xml</code> declares <code>bean-discovery-mode="annotated"</code> and nothing else.
+     * Note that an empty <code>beans.xml</code> means the <code>all</code> discovery mode.
+     *
+     * @param classLoader
+     * @return the indexed bean archives whose <code>beans.xml</code> cannot be represented by the index
+     */
+    public List<String> getIncompatibleBeanArchives(ClassLoader classLoader) {
+        List<String> incompatible = new ArrayList<>();
+        try {
+            Enumeration<URL> beansXmls = classLoader.getResources(BEANS_XML);
+            while (beansXmls.hasMoreElements()) {
+                URL beansXml = beansXmls.nextElement();
+                String archive = getArchive(beansXml, BEANS_XML);
+                if (archives.contains(archive) && !isAnnotatedOnly(beansXml)) {
+                    incompatible.add(archive);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Unable to find bean archives", e);
+        }
+        return incompatible;
+    }
+
+    /**
+     *
+     * @param beansXml
+     * @return <code>true</code> if the descriptor declares the <code>annotated</code> bean discovery mode and no other settings
+     */
+    static boolean isAnnotatedOnly(URL beansXml) {
+        Element beans;
+        try (InputStream in = beansXml.openStream()) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            // Do not print the parse errors to the standard error output
+            builder.setErrorHandler(new DefaultHandler());
+            beans = builder.parse(in).getDocumentElement();
+        } catch (IOException | ParserConfigurationException | SAXException e) {
+            // Also an empty descriptor, let the container handle it
+            LOGGER.debug("Unable to parse {0}: {1}", beansXml, e.getMessage());
+            return false;
+        }
+        if (!"annotated".equals(beans.getAttribute("bean-discovery-mode"))) {
+            return false;
+        }
+        // E.g. interceptors, decorators, alternatives or scan
+        NodeList children = beans.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     *
+     * @param className
+     * @return <code>true</code> if the class is annotated with <code>@WebRoute</code> and implements <code>Handler&lt;RoutingContext&gt;</code>
+     */
+    public boolean isRouteHandler(String className) {
+        return routeHandlers.contains(className);
+    }
+
+    private static String getArchive(URL resource, String name) {
+        String url = resource.toString();
+        return url.endsWith(name) ? url.substring(0, url.length() - name.length()) : url;
+    }
+
+}
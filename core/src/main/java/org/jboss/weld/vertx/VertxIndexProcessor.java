@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Records the bean classes and the <code>@WebRoute</code> handlers of the compiled sources in {@value VertxIndex#RESOURCE_NAME}. The processor is registered automatically, i.e. it's used for any module which has weld-vertx on the compile classpath.
+ * <p>
+ * Only the classes with a bean defining annotation are recorded as bean classes, i.e. the index corresponds to the <code>annotated</code> bean discovery mode.
+ * If the index already exists, the entries of the classes which are not compiled again are retained.
+ *
+ * @author Martin Kouba
+ * @see VertxIndex
+ */
+@SupportedAnnotationTypes("*")
+public class VertxIndexProcessor extends AbstractProcessor {
+
+    static final String WEB_ROUTE = "org.jboss.weld.vertx.web.WebRoute";
+
+    private static final String HANDLER = "io.vertx.core.Handler";
+
+    private static final String ROUTING_CONTEXT = "io.vertx.ext.web.RoutingContext";
+
+    private final Set<String> lines = new TreeSet<>();
+
+    private final Set<String> processedClasses = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!processedClasses.isEmpty()) {
+                write();
+            }
+        } else {
+            for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+                processType(type);
+            }
+        }
+        // Never claim the annotations
+        return false;
+    }
+
+    private void processType(TypeElement type) {
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        processedClasses.add(className);
+        if (isBeanDefining(type)) {
+            lines.add(VertxIndex.BEAN + " " + className);
+        }
+        if (hasAnnotation(type, WEB_ROUTE) && isRouteHandler(type)) {
+            lines.add(VertxIndex.ROUTE + " " + className);
+        }
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            processType(nested);
+        }
+    }
+
+    private boolean isBeanDefining(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            return false;
+        }
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            Element annotationType = annotation.getAnnotationType().asElement();
+            String name = ((TypeElement) annotationType).getQualifiedName().toString();
+            if (name.equals("javax.enterprise.context.Dependent") || name.equals("javax.interceptor.Interceptor") || name.equals("javax.decorator.Decorator")
+                    || hasAnnotation(annotationType, "javax.enterprise.context.NormalScope") || hasAnnotation(annotationType, "javax.enterprise.inject.Stereotype")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRouteHandler(TypeElement type) {
+        TypeElement handler = processingEnv.getElementUtils().getTypeElement(HANDLER);
+        TypeElement routingContext = processingEnv.getElementUtils().getTypeElement(ROUTING_CONTEXT);
+        if (handler == null || routingContext == null) {
+            return false;
+        }
+        TypeMirror routeHandler = processingEnv.getTypeUtils().getDeclaredType(handler, routingContext.asType());
+        return processingEnv.getTypeUtils().isAssignable(type.asType(), routeHandler);
+    }
+
+    private boolean hasAnnotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An incremental compilation only processes the changed sources - the entries of the classes not processed are retained.
+     */
+    private void mergeExisting() {
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", VertxIndex.RESOURCE_NAME);
+            try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(" ");
+                    if (parts.length > 1 && VertxIndex.isSupported(parts[0]) && !processedClasses.contains(parts[1])) {
+                        lines.add(line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // No index yet
+        }
+    }
+
+    private void write() {
+        mergeExisting();
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", VertxIndex.RESOURCE_NAME);
+            try (Writer writer = resource.openWriter()) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Kind.WARNING, "Unable to write " + VertxIndex.RESOURCE_NAME + ": " + e);
+        }
+    }
+
+}
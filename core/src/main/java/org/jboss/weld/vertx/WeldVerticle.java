@@ -16,21 +16,39 @@
  */
 package org.jboss.weld.vertx;
 
-import javax.enterprise.event.Event;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 
 import org.jboss.weld.config.ConfigurationKey;
 import org.jboss.weld.environment.se.Weld;
 import org.jboss.weld.environment.se.WeldContainer;
+import org.jboss.weld.vertx.ConsumerMetricsImpl.AddressMetrics;
+import org.jboss.weld.vertx.VertxConsumer.Overflow;
 import org.jboss.weld.vertx.VertxEvent.VertxMessage;
 
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 
@@ -44,28 +62,225 @@ public class WeldVerticle extends AbstractVerticle {
 
     public static final int OBSERVER_FAILURE_CODE = 0x1B00;
 
+    /**
+     * The failure code used if a message is rejected because the max number of messages in flight was reached.
+     *
+     * @see VertxConsumer#maxInFlight()
+     */
+    public static final int OVERFLOW_FAILURE_CODE = 0x1B01;
+
+    /**
+     * The failure code used if a message is not delivered to the observers because its deadline has already passed.
+     *
+     * @see #DEADLINE_HEADER
+     */
+    public static final int TIMEOUT_FAILURE_CODE = 0x1B02;
+
+    /**
+     * The name of the message header which holds the deadline of a message, i.e. the time in milliseconds since the epoch after which the sender is not
+     * interested in the reply anymore. The header is automatically set by {@link VertxMessage#send(Object, Handler)} but any sender may set it. The header is
+     * only checked for messages sent with a reply handler.
+     * <p>
+     * The deadline is an absolute wall-clock time. The clocks of the sender and the recipient are assumed to be synchronized, e.g. using NTP. In a cluster, a
+     * clock skew between the nodes makes the messages expire too early or too late.
+     */
+    public static final String DEADLINE_HEADER = "weld-deadline";
+
+    /**
+     * The key of the deployment configuration value which may be used to register a message consumer replying with the snapshot of {@link ConsumerMetrics},
+     * e.g.:
+     *
+     * <pre>
+     * {
+     *   "weld.metricsAddress" : "my.metrics"
+     * }
+     * </pre>
+     *
+     * @see ConsumerMetrics#getSnapshot()
+     */
+    public static final String METRICS_ADDRESS_CONFIG_KEY = "weld.metricsAddress";
+
+    /**
+     * The key of the deployment configuration object which may be used to override the {@link VertxConsumer} settings for a specific address, e.g.:
+     *
+     * <pre>
+     * {
+     *   "weld.consumers" : {
+     *     "my.address" : { "ordered" : false, "maxConcurrency" : 4 },
+     *     "my.orders" : { "partitionKey" : "orderId", "partitions" : 8 }
+     *   }
+     * }
+     * </pre>
+     */
+    public static final String CONSUMERS_CONFIG_KEY = "weld.consumers";
+
+    /**
+     * The key of the deployment configuration object which may be used to set the size of a worker pool, e.g.:
+     *
+     * <pre>
+     * {
+     *   "weld.workerPools" : {
+     *     "my.pool" : 4
+     *   }
+     * }
+     * </pre>
+     *
+     * @see VertxConsumer#workerPool()
+     */
+    public static final String WORKER_POOLS_CONFIG_KEY = "weld.workerPools";
+
+    /**
+     * The key of the deployment configuration value which may be used to share one Weld container by all the instances of the same deployment, e.g.:
+     *
+     * <pre>
+     * {
+     *   "weld.sharedContainer" : true
+     * }
+     * </pre>
+     *
+     * The container is bootstrapped by the first instance started and shut down once the last instance is stopped. Each instance registers the message
+     * consumers on its own context so that the messages are distributed among the event loops.
+     */
+    public static final String SHARED_CONTAINER_CONFIG_KEY = "weld.sharedContainer";
+
+    /**
+     * The key of the deployment configuration value which may be used to replace the classpath scanning with the build-time index, e.g.:
+     *
+     * <pre>
+     * {
+     *   "weld.index" : true
+     * }
+     * </pre>
+     *
+     * If an index is found, the bean discovery is disabled and only the indexed bean classes are added to the container. The interceptors, decorators and
+     * alternatives must be then enabled in {@link #configureWeld(Weld)}. If no index is found or if there is a bean archive (i.e. a classpath entry with
+     * <code>META-INF/beans.xml</code>) without an index, e.g. a third-party library, the classpath is scanned as usual. The classpath is also scanned if the
+     * <code>beans.xml</code> of an indexed archive declares anything else than <code>bean-discovery-mode="annotated"</code>, e.g. the <code>all</code> mode
+     * or enabled interceptors, because these settings would be ignored otherwise.
+     *
+     * @see VertxIndex
+     */
+    public static final String INDEX_CONFIG_KEY = "weld.index";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(WeldVerticle.class.getName());
 
-    private WeldContainer weldContainer;
+    // Never modified
+    private static final DeliveryOptions DEFAULT_DELIVERY_OPTIONS = new DeliveryOptions();
+
+    // Used to derive a unique container id for each instance of a deployment
+    private static final AtomicInteger CONTAINER_COUNTER = new AtomicInteger();
 
+    private ContainerHolder containerHolder;
+
+    private PatternRouter patternRouter;
+
+    private final List<MessageConsumer<Object>> messageConsumers = new CopyOnWriteArrayList<>();
+
+    // The handlers may be created on the contexts of the child verticles
+    private final List<BatchHandler> batchHandlers = new CopyOnWriteArrayList<>();
+
+    // The contexts of the child verticles used by the additional consumer instances
+    private final List<Context> consumerContexts = new ArrayList<>();
+
+    private final List<String> consumerDeployments = new ArrayList<>();
+
+    /**
+     * The Weld container is bootstrapped on a worker thread so that the event loop is not blocked. The message consumers are registered on the context once
+     * the bootstrap is finished. The verticle is started once all the message consumers are registered.
+     * <p>
+     * If the start fails, all the resources acquired so far are released.
+     */
     @Override
-    public void start() throws Exception {
-        VertxExtension vertxExtension = new VertxExtension(vertx, context);
-        Weld weld = new Weld().containerId(deploymentID()).property(ConfigurationKey.CONCURRENT_DEPLOYMENT.get(), false);
-        weld.addExtension(vertxExtension);
-        configureWeld(weld);
-        WeldContainer weldContainer = weld.initialize();
-        for (String address : vertxExtension.getConsumerAddresses()) {
-            vertx.eventBus().consumer(address, VertxHandler.from(vertx, weldContainer, address));
-        }
-        this.weldContainer = weldContainer;
-        LOGGER.info("Weld verticle started for deployment {0}", deploymentID());
+    public void start(Future<Void> startFuture) throws Exception {
+        CompletableFuture<ContainerHolder> containerHolder = config().getBoolean(SHARED_CONTAINER_CONFIG_KEY, false)
+                ? ContainerHolder.shared(deploymentID(), this::bootstrapAsync) : bootstrapAsync();
+        containerHolder.whenComplete((holder, failure) -> context.runOnContext(v -> {
+            if (failure != null) {
+                startFuture.fail(failure instanceof CompletionException ? failure.getCause() : failure);
+                return;
+            }
+            this.containerHolder = holder;
+            Future<Void> registered = Future.future();
+            registered.setHandler(result -> {
+                if (result.succeeded()) {
+                    LOGGER.info("Weld verticle started for deployment {0}", deploymentID());
+                    startFuture.complete();
+                } else {
+                    startFailed(startFuture, result.cause());
+                }
+            });
+            try {
+                deployConsumerContexts(holder, result -> {
+                    if (result.failed()) {
+                        registered.fail(result.cause());
+                        return;
+                    }
+                    try {
+                        registerConsumers(holder, registered);
+                    } catch (Exception e) {
+                        // The future is only completed once all the consumers are registered
+                        registered.fail(e);
+                    }
+                });
+            } catch (Exception e) {
+                registered.fail(e);
+            }
+        }));
     }
 
+    /**
+     * The messages buffered by the batch handlers are delivered to the observers before the container is released.
+     */
     @Override
-    public void stop() throws Exception {
-        if (weldContainer != null) {
-            weldContainer.shutdown();
+    public void stop(Future<Void> stopFuture) throws Exception {
+        for (MessageConsumer<Object> messageConsumer : messageConsumers) {
+            messageConsumer.unregister();
+        }
+        if (patternRouter != null) {
+            patternRouter.close();
+        }
+        List<Future<Void>> flushes = new ArrayList<>(batchHandlers.size());
+        for (BatchHandler batchHandler : batchHandlers) {
+            Future<Void> flush = Future.future();
+            batchHandler.context.runOnContext(v -> batchHandler.close().setHandler(flush.completer()));
+            flushes.add(flush);
+        }
+        all(flushes, result -> {
+            if (result.failed()) {
+                LOGGER.warn("Unable to deliver the buffered messages of deployment " + deploymentID(), result.cause());
+            }
+            try {
+                if (containerHolder != null) {
+                    containerHolder.release();
+                }
+                stopFuture.complete();
+            } catch (Exception e) {
+                stopFuture.fail(e);
+            }
+        });
+    }
+
+    /**
+     * Vert.x does not call {@link #stop(Future)} if the start fails. The child verticles are not undeployed automatically either.
+     *
+     * @param startFuture
+     * @param cause
+     */
+    private void startFailed(Future<Void> startFuture, Throwable cause) {
+        Future<Void> stopped = Future.future();
+        stopped.setHandler(result -> {
+            if (result.failed()) {
+                LOGGER.warn("Unable to release the resources of deployment " + deploymentID(), result.cause());
+            }
+            for (String deploymentId : consumerDeployments) {
+                vertx.undeploy(deploymentId);
+            }
+            startFuture.fail(cause);
+        });
+        try {
+            stop(stopped);
+        } catch (Exception e) {
+            stopped.fail(e);
         }
     }
 
@@ -106,7 +321,7 @@ public class WeldVerticle extends AbstractVerticle {
      */
     public WeldContainer container() {
         checkContainer();
-        return weldContainer;
+        return containerHolder.getWeldContainer();
     }
 
     /**
@@ -117,136 +332,1125 @@ public class WeldVerticle extends AbstractVerticle {
     protected void configureWeld(Weld weld) {
     }
 
+    private CompletableFuture<ContainerHolder> bootstrapAsync() {
+        CompletableFuture<ContainerHolder> containerHolder = new CompletableFuture<>();
+        vertx.<ContainerHolder> executeBlocking(future -> future.complete(bootstrap()), false, result -> {
+            if (result.succeeded()) {
+                containerHolder.complete(result.result());
+            } else {
+                containerHolder.completeExceptionally(result.cause());
+            }
+        });
+        return containerHolder;
+    }
+
+    /**
+     * Must not be called on the event loop.
+     *
+     * @return the bootstrapped container
+     */
+    private ContainerHolder bootstrap() {
+        long start = System.nanoTime();
+        VertxExtension vertxExtension = new VertxExtension(vertx, context);
+        // A shared container is only bootstrapped once per deployment, otherwise each instance of the deployment has its own container
+        String containerId = config().getBoolean(SHARED_CONTAINER_CONFIG_KEY, false) ? deploymentID()
+                : deploymentID() + "#" + CONTAINER_COUNTER.incrementAndGet();
+        // The bootstrap is not executed on the event loop - the deployment may use multiple threads
+        Weld weld = new Weld().containerId(containerId).property(ConfigurationKey.CONCURRENT_DEPLOYMENT.get(), true);
+        weld.addExtension(vertxExtension);
+        if (config().getBoolean(INDEX_CONFIG_KEY, false)) {
+            addIndexedBeanClasses(weld);
+        }
+        configureWeld(weld);
+        WeldContainer weldContainer = weld.initialize();
+        MessageCodecs messageCodecs = null;
+        try {
+            JsonObject consumersConfig = config().getJsonObject(CONSUMERS_CONFIG_KEY, new JsonObject());
+            for (ConsumerInfo consumer : vertxExtension.getConsumers()) {
+                JsonObject consumerConfig = consumersConfig.getJsonObject(consumer.getAddress());
+                if (consumerConfig != null) {
+                    consumer.configure(consumerConfig);
+                }
+            }
+            // Codecs must be registered before any message is delivered
+            messageCodecs = MessageCodecs.register(vertx.eventBus(), weldContainer.getBeanManager(), vertxExtension.getCodecBeans());
+            BodyConverters bodyConverters = vertxExtension.getBodyConverters(weldContainer.getBeanManager());
+            WorkerPools workerPools = WorkerPools.create(vertxExtension.getConsumers(), config().getJsonObject(WORKER_POOLS_CONFIG_KEY, new JsonObject()));
+            LOGGER.info("Weld container bootstrapped for deployment {0} in {1} ms", deploymentID(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return new ContainerHolder(weldContainer, vertxExtension, messageCodecs, bodyConverters, workerPools);
+        } catch (RuntimeException e) {
+            // The container would leak otherwise
+            if (messageCodecs != null) {
+                messageCodecs.close();
+            }
+            weldContainer.shutdown();
+            throw e;
+        }
+    }
+
+    private void addIndexedBeanClasses(Weld weld) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        VertxIndex index = VertxIndex.load(classLoader);
+        if (index.isEmpty()) {
+            LOGGER.warn("No index found - classpath scanning is used instead");
+            return;
+        }
+        List<String> unindexed = index.getUnindexedBeanArchives(classLoader);
+        if (!unindexed.isEmpty()) {
+            // The discovery is disabled for all the archives, i.e. the beans from these archives would be silently skipped
+            LOGGER.warn("Bean archives without index found - classpath scanning is used instead: {0}", unindexed);
+            return;
+        }
+        List<String> incompatible = index.getIncompatibleBeanArchives(classLoader);
+        if (!incompatible.isEmpty()) {
+            // E.g. bean-discovery-mode="all" or enabled interceptors would be silently ignored
+            LOGGER.warn("Bean archives whose beans.xml cannot be represented by the index found - classpath scanning is used instead: {0}", incompatible);
+            return;
+        }
+        weld.disableDiscovery();
+        for (String beanClass : index.getBeanClasses()) {
+            try {
+                weld.addBeanClass(classLoader.loadClass(beanClass));
+            } catch (ClassNotFoundException e) {
+                // The index may contain stale entries after an incremental compilation
+                LOGGER.warn("Indexed bean class not found: {0}", beanClass);
+            }
+        }
+        LOGGER.debug("{0} indexed bean classes added", index.getBeanClasses().size());
+    }
+
+    /**
+     * Deploys a {@link ConsumerContextVerticle} for each additional message consumer instance, i.e. the contexts are managed by Vert.x and closed when this
+     * verticle is undeployed.
+     *
+     * @param containerHolder
+     * @param handler
+     * @see VertxConsumer#instances()
+     */
+    private void deployConsumerContexts(ContainerHolder containerHolder, Handler<AsyncResult<Void>> handler) {
+        int count = 0;
+        for (ConsumerInfo consumer : containerHolder.getVertxExtension().getConsumers()) {
+            if (!AddressTrie.isPattern(consumer.getAddress())) {
+                count = Math.max(count, consumer.getInstances() - 1);
+            }
+        }
+        if (count == 0) {
+            handler.handle(Future.succeededFuture());
+            return;
+        }
+        List<ConsumerContextVerticle> verticles = new ArrayList<>();
+        List<Future<String>> deployments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Deployed from the context of this verticle - undeployed together with this verticle
+            ConsumerContextVerticle verticle = new ConsumerContextVerticle();
+            Future<String> deployment = Future.future();
+            vertx.deployVerticle(verticle, result -> {
+                if (result.succeeded()) {
+                    consumerDeployments.add(result.result());
+                    deployment.complete(result.result());
+                } else {
+                    deployment.fail(result.cause());
+                }
+            });
+            verticles.add(verticle);
+            deployments.add(deployment);
+        }
+        all(deployments, result -> {
+            if (result.succeeded()) {
+                for (ConsumerContextVerticle verticle : verticles) {
+                    consumerContexts.add(verticle.getContext());
+                }
+            }
+            handler.handle(result);
+        });
+    }
+
+    /**
+     * The first message consumer for an address is always registered on the context of this instance, even if the container is shared. The additional
+     * consumer instances are registered on the contexts of the child verticles.
+     *
+     * @param containerHolder
+     * @param registered completed once all the registrations are propagated
+     */
+    private void registerConsumers(ContainerHolder containerHolder, Future<Void> registered) {
+        VertxExtension vertxExtension = containerHolder.getVertxExtension();
+        // The container may be shared - activate the context scope for all the contexts of this instance
+        vertxExtension.getContextScopedContext().addContext(context);
+        for (Context consumerContext : consumerContexts) {
+            vertxExtension.getContextScopedContext().addContext(consumerContext);
+        }
+        // The registrations are propagated in parallel
+        List<Future<Void>> registrations = new ArrayList<>();
+        List<String> exactAddresses = new ArrayList<>();
+        for (ConsumerInfo consumer : vertxExtension.getConsumers()) {
+            LOGGER.debug("Register message consumer: {0}", consumer);
+            AddressMetrics metrics = vertxExtension.getMetrics().register(consumer.getAddress());
+            if (AddressTrie.isPattern(consumer.getAddress())) {
+                if (patternRouter == null) {
+                    patternRouter = new PatternRouter(vertx.eventBus(), context);
+                }
+                patternRouter.add(consumer.getAddress(), createHandler(context, containerHolder, consumer, metrics));
+                continue;
+            }
+            exactAddresses.add(consumer.getAddress());
+            registrations.add(register(consumer, createHandler(context, containerHolder, consumer, metrics)));
+            for (int i = 1; i < consumer.getInstances(); i++) {
+                // Each additional instance is bound to a separate event loop context, handlers and dispatchers are not thread-safe
+                Context consumerContext = consumerContexts.get(i - 1);
+                Future<Void> registration = Future.future();
+                consumerContext.runOnContext(v -> {
+                    try {
+                        register(consumer, createHandler(consumerContext, containerHolder, consumer, metrics)).setHandler(registration.completer());
+                    } catch (Exception e) {
+                        registration.fail(e);
+                    }
+                });
+                registrations.add(registration);
+            }
+        }
+        if (patternRouter != null) {
+            // The regular consumers of this container take precedence over the patterns
+            for (String address : exactAddresses) {
+                patternRouter.exclude(address);
+            }
+            vertx.eventBus().addInterceptor(patternRouter);
+        }
+        String metricsAddress = config().getString(METRICS_ADDRESS_CONFIG_KEY);
+        if (metricsAddress != null) {
+            ConsumerMetrics metrics = vertxExtension.getMetrics();
+            MessageConsumer<Object> messageConsumer = vertx.eventBus().consumer(metricsAddress);
+            messageConsumers.add(messageConsumer);
+            registrations.add(register(messageConsumer, message -> message.reply(metrics.getSnapshot())));
+        }
+        all(registrations, registered.completer());
+    }
+
+    /**
+     * {@link io.vertx.core.CompositeFuture#all(java.util.List)} is not used because it does not work correctly for 32 or more futures in Vert.x 3.2.1, i.e.
+     * it never completes or completes too early. The futures may be completed on different contexts.
+     *
+     * @param futures
+     * @param handler notified once all the futures succeed or as soon as any of them fails
+     */
+    static <T> void all(List<Future<T>> futures, Handler<AsyncResult<Void>> handler) {
+        if (futures.isEmpty()) {
+            handler.handle(Future.succeededFuture());
+            return;
+        }
+        // Only the succeeded futures count down - the handler cannot be notified twice
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        for (Future<T> future : futures) {
+            future.setHandler(result -> {
+                if (result.succeeded()) {
+                    if (remaining.decrementAndGet() == 0) {
+                        handler.handle(Future.succeededFuture());
+                    }
+                } else if (failed.compareAndSet(false, true)) {
+                    handler.handle(Future.failedFuture(result.cause()));
+                }
+            });
+        }
+    }
+
+    private AbstractVertxHandler createHandler(Context context, ContainerHolder containerHolder, ConsumerInfo consumer, AddressMetrics metrics) {
+        Dispatcher dispatcher = Dispatcher.from(context, consumer, containerHolder.getWorkerPools());
+        if (consumer.isMethod()) {
+            return MethodHandler.from(vertx, context, containerHolder.getWeldContainer(), consumer, dispatcher, metrics, containerHolder.getBodyConverters());
+        } else if (consumer.isBatch()) {
+            BatchHandler batchHandler = BatchHandler.from(vertx, context, containerHolder.getWeldContainer(), consumer, dispatcher, metrics,
+                    containerHolder.getBodyConverters());
+            batchHandlers.add(batchHandler);
+            return batchHandler;
+        } else if (consumer.isParallel()) {
+            return ParallelHandler.from(vertx, context, containerHolder.getWeldContainer(), consumer, dispatcher, metrics, containerHolder.getBodyConverters());
+        } else {
+            return VertxHandler.from(vertx, context, containerHolder.getWeldContainer(), consumer, dispatcher, metrics, containerHolder.getBodyConverters());
+        }
+    }
+
+    /**
+     * Must be called on the context of the handler.
+     *
+     * @param consumer
+     * @param handler
+     * @return the future completed once the registration is propagated
+     */
+    private Future<Void> register(ConsumerInfo consumer, AbstractVertxHandler handler) {
+        MessageConsumer<Object> messageConsumer = createMessageConsumer(vertx.eventBus(), consumer);
+        handler.setMessageConsumer(messageConsumer);
+        messageConsumers.add(messageConsumer);
+        return register(messageConsumer, handler);
+    }
+
+    /**
+     *
+     * @param eventBus
+     * @param consumer
+     * @return a new message consumer, a local consumer if all the observers only accept messages from the local event bus
+     */
+    static MessageConsumer<Object> createMessageConsumer(EventBus eventBus, ConsumerInfo consumer) {
+        return consumer.isLocal() ? eventBus.localConsumer(consumer.getAddress()) : eventBus.consumer(consumer.getAddress());
+    }
+
+    private Future<Void> register(MessageConsumer<Object> messageConsumer, Handler<Message<Object>> handler) {
+        Future<Void> registration = Future.future();
+        messageConsumer.completionHandler(result -> {
+            if (result.succeeded()) {
+                registration.complete();
+            } else {
+                registration.fail(result.cause());
+            }
+        });
+        messageConsumer.handler(handler);
+        return registration;
+    }
+
+    /**
+     * The original delivery options are not modified.
+     *
+     * @param deliveryOptions
+     * @return the delivery options with the deadline header derived from the send timeout
+     */
+    static DeliveryOptions withDeadline(DeliveryOptions deliveryOptions) {
+        DeliveryOptions options = new DeliveryOptions(deliveryOptions);
+        MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+        if (deliveryOptions.getHeaders() != null) {
+            headers.addAll(deliveryOptions.getHeaders());
+        }
+        headers.set(DEADLINE_HEADER, Long.toString(System.currentTimeMillis() + options.getSendTimeout()));
+        return options.setHeaders(headers);
+    }
+
     private void checkContainer() {
-        if (weldContainer == null || !weldContainer.isRunning()) {
+        if (containerHolder == null || !containerHolder.getWeldContainer().isRunning()) {
             throw new IllegalStateException("Weld container is not initialized or already shut down");
         }
     }
 
-    static class VertxHandler implements Handler<Message<Object>> {
+    /**
+     * Bridges the event bus to the CDI world. Handlers are always called on the context of the {@link WeldVerticle}.
+     * <p>
+     * Keeps track of the messages in flight and applies the overflow strategy if the limit is reached.
+     */
+    abstract static class AbstractVertxHandler implements Handler<Message<Object>> {
 
-        private final Vertx vertx;
+        protected final Vertx vertx;
 
-        private final Event<VertxEvent> event;
+        protected final Context context;
 
-        static VertxHandler from(Vertx vertx, WeldContainer weldContainer, String address) {
-            return new VertxHandler(vertx, weldContainer.event().select(VertxEvent.class, VertxConsumer.Literal.of(address)));
-        }
+        protected final Dispatcher dispatcher;
+
+        protected final AddressMetrics metrics;
+
+        protected final BodyConverters bodyConverters;
+
+        private final int maxInFlight;
+
+        private final Overflow overflow;
 
-        private VertxHandler(Vertx vertx, Event<VertxEvent> event) {
+        private final String partitionKey;
+
+        private MessageConsumer<Object> messageConsumer;
+
+        private boolean paused;
+
+        AbstractVertxHandler(Vertx vertx, Context context, Dispatcher dispatcher, ConsumerInfo consumer, AddressMetrics metrics,
+                BodyConverters bodyConverters) {
             this.vertx = vertx;
-            this.event = event;
+            this.context = context;
+            this.dispatcher = dispatcher;
+            this.metrics = metrics;
+            this.bodyConverters = bodyConverters;
+            this.maxInFlight = consumer.getMaxInFlight();
+            this.overflow = consumer.getOverflow();
+            this.partitionKey = consumer.getPartitionKey();
         }
 
         @Override
-        public void handle(Message<Object> message) {
-            vertx.<Object> executeBlocking(future -> {
-                try {
-                    VertxEventImpl vertxEvent = new VertxEventImpl(message, vertx.eventBus());
-                    // Synchronously notify all the observer methods for a specific address
-                    event.fire(vertxEvent);
-                    if (vertxEvent.isFailure()) {
-                        future.fail(new RecipientFailureException(vertxEvent.getFailureCode(), vertxEvent.getFailureMessage()));
-                    } else {
-                        future.complete(vertxEvent.reply);
+        public final void handle(Message<Object> message) {
+            if (maxInFlight > 0 && metrics.getInFlight() >= maxInFlight) {
+                // A paused consumer may still deliver the messages already in the pipeline
+                metrics.rejected();
+                metrics.failed(OVERFLOW_FAILURE_CODE);
+                message.fail(OVERFLOW_FAILURE_CODE, "Max number of messages in flight reached for: " + message.address());
+                return;
+            }
+            int inFlight = metrics.accepted();
+            if (maxInFlight > 0 && inFlight >= maxInFlight && overflow == Overflow.PAUSE && messageConsumer != null) {
+                messageConsumer.pause();
+                paused = true;
+            }
+            deliver(message);
+        }
+
+        void setMessageConsumer(MessageConsumer<Object> messageConsumer) {
+            this.messageConsumer = messageConsumer;
+        }
+
+        /**
+         * Must be called on the context once the processing of an accepted message is finished.
+         */
+        void completed() {
+            int inFlight = metrics.completed();
+            if (paused && inFlight < maxInFlight) {
+                paused = false;
+                messageConsumer.resume();
+            }
+        }
+
+        /**
+         * Dispatches the event notifying the observers. The event itself is the task.
+         *
+         * @param vertxEvent
+         */
+        void dispatch(DispatchedEvent vertxEvent) {
+            if (partitionKey != null) {
+                dispatcher.dispatch(partitionKey(vertxEvent.message), vertxEvent, vertxEvent::processResult);
+            } else {
+                dispatcher.dispatch(vertxEvent, vertxEvent::processResult);
+            }
+        }
+
+        private Object partitionKey(Message<Object> message) {
+            // The body is checked first - the headers of a local message are allocated lazily
+            if (message.body() instanceof JsonObject) {
+                Object key = ((JsonObject) message.body()).getValue(partitionKey);
+                if (key != null) {
+                    return key;
+                }
+            }
+            return message.headers().get(partitionKey);
+        }
+
+        /**
+         * Delivers an accepted message.
+         *
+         * @param message
+         */
+        abstract void deliver(Message<Object> message);
+
+    }
+
+    static class VertxHandler extends AbstractVertxHandler {
+
+        private final ObserverInvoker<VertxEvent> invoker;
+
+        static VertxHandler from(Vertx vertx, Context context, WeldContainer weldContainer, ConsumerInfo consumer, Dispatcher dispatcher,
+                AddressMetrics metrics, BodyConverters bodyConverters) {
+            return new VertxHandler(vertx, context, ObserverInvoker.of(weldContainer.getBeanManager(), consumer), dispatcher, consumer, metrics,
+                    bodyConverters);
+        }
+
+        private VertxHandler(Vertx vertx, Context context, ObserverInvoker<VertxEvent> invoker, Dispatcher dispatcher, ConsumerInfo consumer,
+                AddressMetrics metrics, BodyConverters bodyConverters) {
+            super(vertx, context, dispatcher, consumer, metrics, bodyConverters);
+            this.invoker = invoker;
+        }
+
+        @Override
+        void deliver(Message<Object> message) {
+            dispatch(new ObserverEvent(message, this, invoker));
+        }
+
+    }
+
+    /**
+     * Invokes the consumer method for a specific address. The return value of the method is used as the reply.
+     *
+     * @see MethodInvoker
+     */
+    static class MethodHandler extends AbstractVertxHandler {
+
+        private final MethodInvoker invoker;
+
+        static MethodHandler from(Vertx vertx, Context context, WeldContainer weldContainer, ConsumerInfo consumer, Dispatcher dispatcher,
+                AddressMetrics metrics, BodyConverters bodyConverters) {
+            return new MethodHandler(vertx, context, MethodInvoker.of(weldContainer.getBeanManager(), consumer.getBean(), consumer.getMethod()), dispatcher,
+                    consumer, metrics, bodyConverters);
+        }
+
+        private MethodHandler(Vertx vertx, Context context, MethodInvoker invoker, Dispatcher dispatcher, ConsumerInfo consumer, AddressMetrics metrics,
+                BodyConverters bodyConverters) {
+            super(vertx, context, dispatcher, consumer, metrics, bodyConverters);
+            this.invoker = invoker;
+        }
+
+        @Override
+        void deliver(Message<Object> message) {
+            dispatch(new MethodEvent(message, this, invoker));
+        }
+
+    }
+
+    /**
+     * Notifies the observers for the same address in parallel. Each observer receives a separate event.
+     *
+     * @see VertxConsumer#parallel()
+     */
+    static class ParallelHandler extends AbstractVertxHandler {
+
+        private final List<ObserverInvoker<VertxEvent>> invokers;
+
+        private final int replyObserverIndex;
+
+        static ParallelHandler from(Vertx vertx, Context context, WeldContainer weldContainer, ConsumerInfo consumer, Dispatcher dispatcher,
+                AddressMetrics metrics, BodyConverters bodyConverters) {
+            return new ParallelHandler(vertx, context, ObserverInvoker.of(weldContainer.getBeanManager(), consumer), dispatcher, consumer, metrics,
+                    bodyConverters);
+        }
+
+        private ParallelHandler(Vertx vertx, Context context, ObserverInvoker<VertxEvent> invoker, Dispatcher dispatcher, ConsumerInfo consumer,
+                AddressMetrics metrics, BodyConverters bodyConverters) {
+            super(vertx, context, dispatcher, consumer, metrics, bodyConverters);
+            List<ObserverInvoker<VertxEvent>> invokers = new ArrayList<>();
+            int replyObserverIndex = -1;
+            for (int i = 0; i < invoker.getObservers().size(); i++) {
+                for (Annotation qualifier : invoker.getObservers().get(i).getObserverMethod().getObservedQualifiers()) {
+                    if (qualifier instanceof VertxConsumer && ((VertxConsumer) qualifier).replyObserver()) {
+                        replyObserverIndex = i;
                     }
+                }
+                invokers.add(invoker.forObserver(i));
+            }
+            this.invokers = invokers;
+            this.replyObserverIndex = replyObserverIndex;
+        }
+
+        @Override
+        void deliver(Message<Object> message) {
+            FanOut fanOut = new FanOut(new VertxEventImpl(message, this), invokers.size());
+            for (int i = 0; i < invokers.size(); i++) {
+                ParallelObserverEvent observerEvent = new ParallelObserverEvent(message, this, invokers.get(i));
+                boolean replyObserver = i == replyObserverIndex;
+                dispatcher.dispatch(observerEvent, result -> fanOut.completed(result, replyObserver, observerEvent));
+            }
+        }
+
+    }
+
+    /**
+     * Notifies the observers of the given invoker, i.e. all the observers for the address or a single observer if notified in parallel.
+     */
+    static class ObserverEvent extends DispatchedEvent {
+
+        private final ObserverInvoker<VertxEvent> invoker;
+
+        ObserverEvent(Message<Object> message, AbstractVertxHandler handler, ObserverInvoker<VertxEvent> invoker) {
+            super(message, handler);
+            this.invoker = invoker;
+        }
+
+        @Override
+        void notifyObservers() {
+            invoker.notify(this);
+        }
+
+    }
+
+    /**
+     * Notifies a single observer notified in parallel. The metrics are not recorded for each observer but aggregated by {@link FanOut}.
+     */
+    static class ParallelObserverEvent extends ObserverEvent {
+
+        private boolean recorded;
+
+        private boolean expired;
+
+        private long started;
+
+        private long finished;
+
+        ParallelObserverEvent(Message<Object> message, AbstractVertxHandler handler, ObserverInvoker<VertxEvent> invoker) {
+            super(message, handler, invoker);
+        }
+
+        @Override
+        void recordMetrics(long started, long finished) {
+            // Read on the context once the task is completed
+            this.recorded = true;
+            this.started = started;
+            this.finished = finished;
+        }
+
+        @Override
+        void recordExpired(long started) {
+            this.recorded = true;
+            this.expired = true;
+            this.started = started;
+        }
+
+    }
+
+    /**
+     * Invokes the consumer method, the return value is used as the reply.
+     */
+    static class MethodEvent extends DispatchedEvent {
+
+        private final MethodInvoker invoker;
+
+        MethodEvent(Message<Object> message, AbstractVertxHandler handler, MethodInvoker invoker) {
+            super(message, handler);
+            this.invoker = invoker;
+        }
+
+        @Override
+        void notifyObservers() {
+            Object result;
+            try {
+                result = invoker.invoke(this);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+            setResult(result);
+        }
+
+    }
+
+    /**
+     * Aggregates the results of the observers notified in parallel. All the methods are called on the context.
+     * <p>
+     * The reply may be sent before all the observers complete, the reply latency is recorded at that time. However, the message is only completed, i.e. the
+     * in-flight slot is released, once the last observer completes.
+     * <p>
+     * The queue wait and execution time are recorded once per message. The queue wait ends when the first observer notification starts, the execution ends
+     * when the last observer notification finishes.
+     */
+    static class FanOut {
+
+        private final VertxEventImpl vertxEvent;
+
+        private int remaining;
+
+        private boolean started;
+
+        private long firstStarted;
+
+        private boolean finished;
+
+        private long lastFinished;
+
+        private boolean expired;
+
+        private boolean replied;
+
+        private Object reply;
+
+        private List<Throwable> failures;
+
+        FanOut(VertxEventImpl vertxEvent, int observers) {
+            this.vertxEvent = vertxEvent;
+            this.remaining = observers;
+            if (observers == 0) {
+                vertxEvent.processResult(Future.succeededFuture());
+            }
+        }
+
+        void completed(AsyncResult<Object> result, boolean replyObserver, ParallelObserverEvent observerEvent) {
+            remaining--;
+            recordTimes(observerEvent);
+            if (result.failed()) {
+                if (failures == null) {
+                    failures = new ArrayList<>(2);
+                }
+                failures.add(result.cause());
+                // The first failure fails the message
+                reply(result);
+            } else if (replyObserver) {
+                reply(result);
+            } else if (reply == null) {
+                reply = result.result();
+            }
+            if (remaining == 0) {
+                recordMetrics();
+                reply(Future.succeededFuture(reply));
+                vertxEvent.completed();
+                if (failures != null && failures.size() > 1) {
+                    LOGGER.warn("{0} observers failed for {1}: {2}", failures.size(), vertxEvent.getAddress(), failures);
+                }
+            }
+        }
+
+        private void recordTimes(ParallelObserverEvent observerEvent) {
+            if (!observerEvent.recorded) {
+                // The task was not executed at all, e.g. rejected by the executor
+                return;
+            }
+            if (!started || observerEvent.started - firstStarted < 0) {
+                started = true;
+                firstStarted = observerEvent.started;
+            }
+            if (observerEvent.expired) {
+                expired = true;
+            } else if (!finished || observerEvent.finished - lastFinished > 0) {
+                finished = true;
+                lastFinished = observerEvent.finished;
+            }
+        }
+
+        private void recordMetrics() {
+            AddressMetrics metrics = vertxEvent.handler.metrics;
+            if (started) {
+                metrics.queueWait(firstStarted - vertxEvent.received);
+            }
+            if (finished) {
+                metrics.execution(lastFinished - firstStarted);
+            }
+            if (expired) {
+                metrics.expired();
+            }
+        }
+
+        private void reply(AsyncResult<Object> result) {
+            if (!replied) {
+                replied = true;
+                vertxEvent.reply(result);
+            }
+        }
+
+    }
+
+    /**
+     * Buffers the messages and notifies the observers once the max batch size is reached or the max linger time elapses. The buffered messages are also
+     * delivered when the handler is closed.
+     *
+     * @see VertxBatchEvent
+     */
+    static class BatchHandler extends AbstractVertxHandler {
+
+        private final ObserverInvoker<VertxBatchEvent> invoker;
+
+        private final String address;
+
+        private final int maxBatchSize;
+
+        private final long maxBatchLinger;
+
+        private List<VertxEvent> buffer;
+
+        private long timerId;
+
+        private boolean closed;
+
+        static BatchHandler from(Vertx vertx, Context context, WeldContainer weldContainer, ConsumerInfo consumer, Dispatcher dispatcher,
+                AddressMetrics metrics, BodyConverters bodyConverters) {
+            return new BatchHandler(vertx, context, ObserverInvoker.of(weldContainer.getBeanManager(), consumer), dispatcher, consumer, metrics,
+                    bodyConverters);
+        }
+
+        private BatchHandler(Vertx vertx, Context context, ObserverInvoker<VertxBatchEvent> invoker, Dispatcher dispatcher, ConsumerInfo consumer,
+                AddressMetrics metrics, BodyConverters bodyConverters) {
+            super(vertx, context, dispatcher, consumer, metrics, bodyConverters);
+            this.invoker = invoker;
+            this.address = consumer.getAddress();
+            this.maxBatchSize = Math.max(1, consumer.getMaxBatchSize());
+            this.maxBatchLinger = Math.max(1, consumer.getMaxBatchLinger());
+            this.timerId = -1;
+        }
+
+        @Override
+        void deliver(Message<Object> message) {
+            if (closed) {
+                // The consumer may still deliver the messages already in the pipeline
+                new VertxEventImpl(message, this).processResult(
+                        Future.failedFuture(new RecipientFailureException(OBSERVER_FAILURE_CODE, "Batch consumer closed for: " + address)));
+                return;
+            }
+            if (buffer == null) {
+                buffer = new ArrayList<>(Math.min(maxBatchSize, 1024));
+                if (maxBatchSize > 1) {
+                    timerId = vertx.setTimer(maxBatchLinger, id -> {
+                        timerId = -1;
+                        flush();
+                    });
+                }
+            }
+            buffer.add(new VertxEventImpl(message, this));
+            if (buffer.size() >= maxBatchSize) {
+                if (timerId != -1) {
+                    vertx.cancelTimer(timerId);
+                    timerId = -1;
+                }
+                flush();
+            }
+        }
+
+        /**
+         * Must be called on the context. Delivers the buffered messages, the subsequent messages fail.
+         *
+         * @return the future completed once the buffered messages are processed
+         */
+        Future<Void> close() {
+            closed = true;
+            if (timerId != -1) {
+                vertx.cancelTimer(timerId);
+                timerId = -1;
+            }
+            return flush();
+        }
+
+        /**
+         *
+         * @return the future completed once the buffered messages are processed
+         */
+        private Future<Void> flush() {
+            Future<Void> flushed = Future.future();
+            if (buffer == null) {
+                flushed.complete();
+                return flushed;
+            }
+            VertxBatchEventImpl batch = new VertxBatchEventImpl(address, Collections.unmodifiableList(buffer));
+            buffer = null;
+            dispatcher.dispatch(future -> {
+                try {
+                    invoker.notify(batch);
+                    future.complete();
                 } catch (Exception e) {
                     future.fail(e);
                 }
             }, result -> {
-                if (result.succeeded()) {
-                    message.reply(result.result());
-                } else {
-                    Throwable cause = result.cause();
-                    if (cause instanceof RecipientFailureException) {
-                        RecipientFailureException recipientFailure = (RecipientFailureException) cause;
-                        message.fail(recipientFailure.code, recipientFailure.getMessage());
+                for (VertxEvent event : batch.events) {
+                    VertxEventImpl vertxEvent = (VertxEventImpl) event;
+                    if (result.failed()) {
+                        vertxEvent.processResult(result);
                     } else {
-                        message.fail(OBSERVER_FAILURE_CODE, cause.getMessage());
+                        Future<Object> future = Future.future();
+                        future.setHandler(vertxEvent::processResult);
+                        vertxEvent.complete(future);
                     }
                 }
+                flushed.complete();
             });
+            return flushed;
         }
 
     }
 
-    static class VertxEventImpl implements VertxEvent {
+    static class VertxBatchEventImpl implements VertxBatchEvent {
 
-        private static final Logger LOGGER = LoggerFactory.getLogger(VertxEventImpl.class.getName());
+        private final String address;
 
-        private final EventBus eventBus;
+        private final List<VertxEvent> events;
 
-        private final String address;
+        VertxBatchEventImpl(String address, List<VertxEvent> events) {
+            this.address = address;
+            this.events = events;
+        }
+
+        @Override
+        public String getAddress() {
+            return address;
+        }
+
+        @Override
+        public List<VertxEvent> getEvents() {
+            return events;
+        }
+
+    }
+
+    /**
+     * Represents a single message delivery. Processes the result.
+     */
+    static class VertxEventImpl implements VertxEvent {
+
+        private static final Logger LOGGER = LoggerFactory.getLogger(VertxEventImpl.class.getName());
 
-        private final MultiMap headers;
+        final Message<Object> message;
 
-        private final Object messageBody;
+        final AbstractVertxHandler handler;
 
-        private final String replyAddress;
+        final long received;
 
         private Object reply;
 
-        private Integer failureCode;
+        private CompletableFuture<Object> asyncReply;
 
-        private String failureMessage;
+        private RecipientFailureException failure;
 
-        VertxEventImpl(Message<Object> message, EventBus eventBus) {
-            this.address = message.address();
-            this.headers = message.headers();
-            this.messageBody = message.body();
-            this.replyAddress = message.replyAddress();
-            this.eventBus = eventBus;
+        private Object convertedBody;
+
+        VertxEventImpl(Message<Object> message, AbstractVertxHandler handler) {
+            this.message = message;
+            this.handler = handler;
+            this.received = System.nanoTime();
         }
 
         @Override
         public String getAddress() {
-            return address;
+            return message.address();
         }
 
         @Override
         public MultiMap getHeaders() {
-            return headers;
+            return message.headers();
         }
 
         @Override
         public Object getMessageBody() {
-            return messageBody;
+            return message.body();
+        }
+
+        @Override
+        public <T> T getMessageBody(Class<T> type) {
+            // Multiple observers usually need the same type
+            if (!type.isInstance(convertedBody)) {
+                convertedBody = handler.bodyConverters.convert(message.body(), type);
+            }
+            return type.cast(convertedBody);
         }
 
         @Override
         public String getReplyAddress() {
-            return replyAddress;
+            return message.replyAddress();
         }
 
         @Override
         public void setReply(Object reply) {
-            if (replyAddress == null) {
+            if (message.replyAddress() == null) {
                 LOGGER.warn("The message was sent without a reply handler - the reply will be ignored");
             }
             this.reply = reply;
         }
 
+        /**
+         * Sets the return value of a consumer method. The completion of a {@link CompletionStage} is used as an async reply.
+         *
+         * @param result
+         */
+        @SuppressWarnings("unchecked")
+        void setResult(Object result) {
+            if (result instanceof CompletionStage) {
+                CompletableFuture<Object> asyncReply = replyLater();
+                ((CompletionStage<Object>) result).whenComplete((reply, failure) -> {
+                    if (failure != null) {
+                        asyncReply.completeExceptionally(failure);
+                    } else {
+                        asyncReply.complete(reply);
+                    }
+                });
+            } else {
+                this.reply = result;
+            }
+        }
+
         @Override
         public void fail(int code, String message) {
-            this.failureCode = code;
-            this.failureMessage = message;
+            this.failure = new RecipientFailureException(code, message);
+        }
+
+        @Override
+        public CompletableFuture<Object> replyLater() {
+            if (asyncReply == null) {
+                asyncReply = new CompletableFuture<>();
+            }
+            return asyncReply;
+        }
+
+        @Override
+        public VertxMessage messageTo(String address) {
+            return new VertxMessageImpl(address, handler.vertx.eventBus());
+        }
+
+        /**
+         * Completes the future once the observers are notified. If an async reply is requested, the future is completed on the context. A failure set by an
+         * observer fails the future.
+         * <p>
+         * An async reply which is not completed before the deadline of the message, or the default send timeout if there is no deadline, fails the future
+         * with {@link WeldVerticle#TIMEOUT_FAILURE_CODE} so that the in-flight slot is not held forever.
+         *
+         * @param future
+         */
+        void complete(Future<Object> future) {
+            if (failure != null) {
+                future.fail(failure);
+            } else if (asyncReply == null) {
+                future.complete(reply);
+            } else {
+                long deadline = getDeadline();
+                long timeout = deadline != -1 ? Math.max(1, deadline - System.currentTimeMillis()) : DeliveryOptions.DEFAULT_TIMEOUT;
+                long timerId = handler.vertx.setTimer(timeout, id -> handler.context.runOnContext(v -> {
+                    if (!future.isComplete()) {
+                        handler.metrics.expired();
+                        future.fail(new RecipientFailureException(TIMEOUT_FAILURE_CODE, "Async reply not completed in time for: " + message.address()));
+                    }
+                }));
+                asyncReply.whenComplete((reply, failure) -> handler.context.runOnContext(v -> {
+                    if (future.isComplete()) {
+                        // Already timed out
+                        return;
+                    }
+                    handler.vertx.cancelTimer(timerId);
+                    if (failure != null) {
+                        future.fail(toRecipientFailure(failure));
+                    } else {
+                        future.complete(reply);
+                    }
+                }));
+            }
         }
 
-        boolean isFailure() {
-            return failureCode != null;
+        /**
+         * Processes the result on the context and records the metrics. Nothing is sent if the message was sent without a reply handler.
+         *
+         * @param result
+         */
+        void processResult(AsyncResult<Object> result) {
+            completed();
+            reply(result);
         }
 
-        Integer getFailureCode() {
-            return failureCode;
+        /**
+         * Must be called on the context once the processing is finished. Releases the in-flight slot.
+         */
+        void completed() {
+            handler.completed();
         }
 
-        String getFailureMessage() {
-            return failureMessage;
+        /**
+         * Sends the reply or the failure and records the reply latency. Nothing is sent if the message was sent without a reply handler.
+         *
+         * @param result
+         */
+        void reply(AsyncResult<Object> result) {
+            sendReply(result);
+            handler.metrics.reply(System.nanoTime() - received);
         }
 
+        private void sendReply(AsyncResult<Object> result) {
+            if (result.succeeded()) {
+                if (message.replyAddress() != null) {
+                    message.reply(result.result());
+                }
+            } else {
+                Throwable cause = result.cause();
+                if (cause instanceof RecipientFailureException) {
+                    RecipientFailureException recipientFailure = (RecipientFailureException) cause;
+                    sendFailure(recipientFailure.code, recipientFailure.getMessage());
+                } else {
+                    sendFailure(OBSERVER_FAILURE_CODE, cause.getMessage());
+                }
+            }
+        }
+
+        private void sendFailure(int code, String failureMessage) {
+            handler.metrics.failed(code);
+            if (message.replyAddress() != null) {
+                message.fail(code, failureMessage);
+            }
+        }
+
+        boolean isExpired() {
+            long deadline = getDeadline();
+            return deadline != -1 && System.currentTimeMillis() > deadline;
+        }
+
+        /**
+         *
+         * @return the deadline of the message or <code>-1</code> if there is no valid deadline
+         * @see WeldVerticle#DEADLINE_HEADER
+         */
+        private long getDeadline() {
+            if (message.replyAddress() == null) {
+                // Nobody waits for the reply - also Message.headers() would allocate an empty map for a message sent without headers
+                return -1;
+            }
+            String deadline = message.headers().get(DEADLINE_HEADER);
+            if (deadline == null) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(deadline);
+            } catch (NumberFormatException e) {
+                LOGGER.debug("Invalid deadline header ignored: {0}", deadline);
+                return -1;
+            }
+        }
+
+        private Throwable toRecipientFailure(Throwable failure) {
+            if (failure instanceof CompletionException && failure.getCause() != null) {
+                failure = failure.getCause();
+            }
+            if (failure instanceof ReplyException) {
+                ReplyException replyException = (ReplyException) failure;
+                return new RecipientFailureException(replyException.failureCode(), replyException.getMessage());
+            }
+            return failure;
+        }
+
+    }
+
+    /**
+     * A single message delivery dispatched as a task. Notifies the observers and completes the future.
+     */
+    abstract static class DispatchedEvent extends VertxEventImpl implements Handler<Future<Object>> {
+
+        DispatchedEvent(Message<Object> message, AbstractVertxHandler handler) {
+            super(message, handler);
+        }
+
+        /**
+         * A failure set by an observer is not propagated as an exception, it's kept in the event instead.
+         */
         @Override
-        public VertxMessage messageTo(String address) {
-            return new VertxMessageImpl(address, eventBus);
+        public void handle(Future<Object> future) {
+            long started = System.nanoTime();
+            if (isExpired()) {
+                // The sender has already given up
+                recordExpired(started);
+                future.fail(new RecipientFailureException(TIMEOUT_FAILURE_CODE, "Deadline passed before delivery to: " + message.address()));
+                return;
+            }
+            try {
+                notifyObservers();
+                recordMetrics(started, System.nanoTime());
+                complete(future);
+            } catch (Exception e) {
+                recordMetrics(started, System.nanoTime());
+                future.fail(e);
+            }
+        }
+
+        /**
+         * Records the queue wait and the execution time. Called before the future is completed.
+         *
+         * @param started the time the observers notification started
+         * @param finished the time the observers notification finished
+         */
+        void recordMetrics(long started, long finished) {
+            handler.metrics.queueWait(started - received);
+            handler.metrics.execution(finished - started);
+        }
+
+        /**
+         * Records the queue wait of an expired message. Called before the future is completed.
+         *
+         * @param started the time the message was found expired
+         */
+        void recordExpired(long started) {
+            handler.metrics.queueWait(started - received);
+            handler.metrics.expired();
+        }
+
+        /**
+         * Synchronously notifies the observers.
+         */
+        abstract void notifyObservers();
+
+    }
+
+    /**
+     * Only provides an event loop context for the additional message consumer instances. Event loop contexts are assigned to the event loops in a round-robin
+     * fashion.
+     *
+     * @see VertxConsumer#instances()
+     */
+    static class ConsumerContextVerticle extends AbstractVerticle {
+
+        Context getContext() {
+            return context;
         }
 
     }
@@ -259,6 +1463,8 @@ public class WeldVerticle extends AbstractVerticle {
 
         private DeliveryOptions deliveryOptions;
 
+        private boolean deadline;
+
         VertxMessageImpl(String address, EventBus eventBus) {
             this.address = address;
             this.eventBus = eventBus;
@@ -270,23 +1476,26 @@ public class WeldVerticle extends AbstractVerticle {
             return this;
         }
 
+        @Override
+        public VertxMessage setDeadline(boolean deadline) {
+            this.deadline = deadline;
+            return this;
+        }
+
         @Override
         public void send(Object message) {
             if (deliveryOptions != null) {
-                eventBus.send(address, message);
-            } else {
                 eventBus.send(address, message, deliveryOptions);
+            } else {
+                eventBus.send(address, message);
             }
-
         }
 
         @Override
         public void send(Object message, Handler<AsyncResult<Message<Object>>> replyHandler) {
-            if (deliveryOptions != null) {
-                eventBus.send(address, message, deliveryOptions, replyHandler);
-            } else {
-                eventBus.send(address, message, replyHandler);
-            }
+            DeliveryOptions options = deliveryOptions != null ? deliveryOptions : DEFAULT_DELIVERY_OPTIONS;
+            // The delivery options are not modified by the event bus
+            eventBus.send(address, message, deadline ? withDeadline(options) : options, replyHandler);
         }
 
         @Override
@@ -300,14 +1509,17 @@ public class WeldVerticle extends AbstractVerticle {
 
     }
 
+    /**
+     * The stack trace is not needed to fail a message.
+     */
     private static class RecipientFailureException extends Exception {
 
         private static final long serialVersionUID = 1L;
 
-        private final Integer code;
+        private final int code;
 
-        RecipientFailureException(Integer code, String message) {
-            super(message);
+        RecipientFailureException(int code, String message) {
+            super(message, null, false, false);
             this.code = code;
         }
 
@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.VertxOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+
+/**
+ * Named worker pools used to isolate the message consumers from each other. The pools are created when the {@link WeldVerticle} is started and closed when
+ * the verticle is stopped.
+ * <p>
+ * If any consumer requires virtual threads and the runtime supports them, a virtual thread per task executor is also managed.
+ *
+ * @author Martin Kouba
+ * @see VertxConsumer#workerPool()
+ */
+class WorkerPools {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerPools.class.getName());
+
+    // Executors.newVirtualThreadPerTaskExecutor() is only available on Java 21+, null if not supported
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    private static final AtomicBoolean UNSUPPORTED_WARNED = new AtomicBoolean();
+
+    private final Map<String, ExecutorService> pools;
+
+    private final ExecutorService virtualThreadExecutor;
+
+    /**
+     *
+     * @param consumers
+     * @param config the pool sizes from the deployment configuration, override the sizes declared by observer methods
+     * @return the worker pools for all the consumers
+     * @see WeldVerticle#WORKER_POOLS_CONFIG_KEY
+     */
+    static WorkerPools create(Collection<ConsumerInfo> consumers, JsonObject config) {
+        Map<String, Integer> sizes = new HashMap<>();
+        boolean virtualThreadRequired = false;
+        for (ConsumerInfo consumer : consumers) {
+            if (consumer.isBlocking() && consumer.isVirtualThread()) {
+                virtualThreadRequired = true;
+            } else if (consumer.getWorkerPool() != null) {
+                Integer size = sizes.get(consumer.getWorkerPool());
+                if (size == null || consumer.getWorkerPoolSize() > size) {
+                    sizes.put(consumer.getWorkerPool(), consumer.getWorkerPoolSize());
+                }
+            }
+        }
+        Map<String, ExecutorService> pools = new HashMap<>();
+        for (Entry<String, Integer> entry : sizes.entrySet()) {
+            int size = config.getInteger(entry.getKey(), entry.getValue());
+            if (size <= 0) {
+                size = VertxOptions.DEFAULT_WORKER_POOL_SIZE;
+            }
+            LOGGER.debug("Create worker pool {0} of size {1}", entry.getKey(), size);
+            pools.put(entry.getKey(), Executors.newFixedThreadPool(size, new WorkerThreadFactory(entry.getKey())));
+        }
+        return new WorkerPools(pools, virtualThreadRequired ? newVirtualThreadExecutor() : null);
+    }
+
+    private WorkerPools(Map<String, ExecutorService> pools, ExecutorService virtualThreadExecutor) {
+        this.pools = pools;
+        this.virtualThreadExecutor = virtualThreadExecutor;
+    }
+
+    /**
+     *
+     * @param name
+     * @return the worker pool with the given name
+     * @throws IllegalArgumentException If no such pool exists
+     */
+    ExecutorService get(String name) {
+        ExecutorService pool = pools.get(name);
+        if (pool == null) {
+            throw new IllegalArgumentException("Worker pool does not exist: " + name);
+        }
+        return pool;
+    }
+
+    /**
+     *
+     * @return the virtual thread per task executor or <code>null</code> if not required or not supported by the runtime
+     */
+    ExecutorService getVirtualThreadExecutor() {
+        return virtualThreadExecutor;
+    }
+
+    /**
+     *
+     * @param thread
+     * @return <code>true</code> if the given thread belongs to a named worker pool
+     * @see WorkerThreadScoped
+     */
+    static boolean isWorkerThread(Thread thread) {
+        return thread instanceof WorkerThread;
+    }
+
+    /**
+     * The tasks already submitted are executed but no new tasks will be accepted.
+     */
+    void close() {
+        for (ExecutorService pool : pools.values()) {
+            pool.shutdown();
+        }
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR == null) {
+            // Only warn once per JVM, not for each deployment
+            if (UNSUPPORTED_WARNED.compareAndSet(false, true)) {
+                LOGGER.warn("Virtual threads not supported by the runtime - the default Vert.x worker pool will be used instead");
+            }
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create virtual thread executor", e);
+        }
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+
+        private final AtomicInteger counter;
+
+        WorkerThreadFactory(String name) {
+            this.prefix = "weld-vertx-worker-" + name + "-";
+            this.counter = new AtomicInteger();
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new WorkerThread(runnable, prefix + counter.getAndIncrement());
+        }
+
+    }
+
+    private static class WorkerThread extends Thread {
+
+        WorkerThread(Runnable runnable, String name) {
+            super(runnable, name);
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.NormalScope;
+
+/**
+ * A normal scope bound to the current worker thread, i.e. each worker thread has its own bean instance which is reused by all the subsequent invocations on
+ * the same thread. The beans don't need to be thread-safe. This is useful for expensive helpers which are not thread-safe, e.g. parsers or serializers.
+ * <p>
+ * The scope is active on the threads of the Vert.x worker pool and of the worker pools declared with {@link VertxConsumer#workerPool()}. Any attempt to access
+ * a worker thread scoped bean from an event loop thread, a virtual thread or any other thread results in {@link ContextNotActiveException}. The instances are
+ * destroyed when the Weld container is shut down.
+ *
+ * @author Martin Kouba
+ * @see ContextScoped
+ */
+@Documented
+@NormalScope
+@Inherited
+@Target({ TYPE, METHOD, FIELD })
+@Retention(RUNTIME)
+public @interface WorkerThreadScoped {
+
+}
@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.lang.annotation.Annotation;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.spi.Contextual;
+
+import io.vertx.core.Context;
+
+/**
+ * The context of {@link WorkerThreadScoped} beans. The instances are stored in a thread local map, i.e. the instances of a thread are never created
+ * concurrently. However, the instances are destroyed on the thread which shuts down the container and so a concurrent map is used.
+ *
+ * @author Martin Kouba
+ */
+class WorkerThreadScopedContext extends AbstractScopeContext {
+
+    // Not static - multiple containers may share the same worker threads
+    private final ThreadLocal<Map<Contextual<?>, ContextualInstance<?>>> threadInstances;
+
+    // All the instance maps created, the instances are destroyed on shutdown
+    private final Queue<Map<Contextual<?>, ContextualInstance<?>>> allInstances;
+
+    WorkerThreadScopedContext() {
+        this.threadInstances = new ThreadLocal<>();
+        this.allInstances = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public Class<? extends Annotation> getScope() {
+        return WorkerThreadScoped.class;
+    }
+
+    @Override
+    public boolean isActive() {
+        return Context.isOnWorkerThread() || WorkerPools.isWorkerThread(Thread.currentThread());
+    }
+
+    /**
+     * Destroys all the instances. Must not be called while the instances are still in use, i.e. the message consumers should be already unregistered. The
+     * thread local maps are left empty.
+     */
+    void destroyAll() {
+        Map<Contextual<?>, ContextualInstance<?>> instances;
+        while ((instances = allInstances.poll()) != null) {
+            destroyAll(instances);
+        }
+    }
+
+    @Override
+    protected Map<Contextual<?>, ContextualInstance<?>> getInstances(boolean create) {
+        if (!isActive()) {
+            throw new ContextNotActiveException("@WorkerThreadScoped beans may only be used on a worker thread: " + Thread.currentThread().getName());
+        }
+        Map<Contextual<?>, ContextualInstance<?>> instances = threadInstances.get();
+        if (instances == null && create) {
+            instances = new ConcurrentHashMap<>();
+            threadInstances.set(instances);
+            allInstances.add(instances);
+        }
+        return instances;
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import org.jboss.weld.vertx.Dispatcher.EventLoopDispatcher;
+import org.jboss.weld.vertx.WeldVerticle.VertxHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Guards the number of bytes allocated by the bridge per delivered message. The test is executed in a separate JVM (see the <code>allocation-test</code>
+ * execution of the surefire plugin) because the result depends on the JIT profile collected by the tests executed before.
+ *
+ * @author Martin Kouba
+ */
+@RunWith(VertxUnitRunner.class)
+public class HandlerAllocationTest {
+
+    static final int MESSAGES = 100_000;
+
+    // The measurement is finished once the minimum did not drop for this number of passes, i.e. the allocation is stable
+    static final int STABLE_PASSES = 3;
+
+    static final int MAX_PASSES = 30;
+
+    // Includes the allocations of Weld observer notification
+    static final long MAX_BYTES_PER_MESSAGE = 128;
+
+    private Vertx vertx;
+
+    private WeldVerticle weldVerticle;
+
+    @Before
+    public void init(TestContext context) {
+        vertx = Vertx.vertx();
+        weldVerticle = new WeldVerticle();
+        vertx.deployVerticle(weldVerticle, context.asyncAssertSuccess());
+    }
+
+    @After
+    public void close(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testAllocationsPerMessage() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported() && threadBean.isThreadAllocatedMemoryEnabled());
+
+        VertxHandler handler = VertxHandler.from(vertx, vertx.getOrCreateContext(), weldVerticle.container(), new ConsumerInfo(VertxObservers.TEST_NOOP),
+                new EventLoopDispatcher(), new ConsumerMetricsImpl().register(VertxObservers.TEST_NOOP),
+                BodyConverters.create(weldVerticle.container().getBeanManager(), Collections.emptyList()));
+        Message<Object> message = new NoReplyMessage(VertxObservers.TEST_NOOP, "foo");
+        long threadId = Thread.currentThread().getId();
+        // Warm up until the allocation is stable - a single pass depends on the JIT compilation and therefore on the tests executed before
+        long bytesPerMessage = Long.MAX_VALUE;
+        int stablePasses = 0;
+        for (int pass = 0; pass < MAX_PASSES && stablePasses < STABLE_PASSES; pass++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MESSAGES; i++) {
+                handler.handle(message);
+            }
+            long bytes = (threadBean.getThreadAllocatedBytes(threadId) - before) / MESSAGES;
+            if (bytes < bytesPerMessage) {
+                bytesPerMessage = bytes;
+                stablePasses = 0;
+            } else {
+                stablePasses++;
+            }
+        }
+        assertTrue("Allocated bytes per message: " + bytesPerMessage, bytesPerMessage <= MAX_BYTES_PER_MESSAGE);
+    }
+
+    /**
+     * Fire-and-forget message without headers. The same instance is delivered repeatedly, therefore the empty headers are allocated on every call - the Vert.x
+     * message implementation allocates them lazily for each message.
+     */
+    static class NoReplyMessage implements Message<Object> {
+
+        private final String address;
+
+        private final Object body;
+
+        NoReplyMessage(String address, Object body) {
+            this.address = address;
+            this.body = body;
+        }
+
+        @Override
+        public String address() {
+            return address;
+        }
+
+        @Override
+        public MultiMap headers() {
+            return MultiMap.caseInsensitiveMultiMap();
+        }
+
+        @Override
+        public Object body() {
+            return body;
+        }
+
+        @Override
+        public String replyAddress() {
+            return null;
+        }
+
+        @Override
+        public void reply(Object message) {
+        }
+
+        @Override
+        public <R> void reply(Object message, Handler<AsyncResult<Message<R>>> replyHandler) {
+        }
+
+        @Override
+        public void reply(Object message, DeliveryOptions options) {
+        }
+
+        @Override
+        public <R> void reply(Object message, DeliveryOptions options, Handler<AsyncResult<Message<R>>> replyHandler) {
+        }
+
+        @Override
+        public void fail(int failureCode, String message) {
+        }
+
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+
+/**
+ * Compares the observer notification through {@link ObserverInvoker} with {@link BeanManager#fireEvent(Object, java.lang.annotation.Annotation...)}, i.e.
+ * with the type-safe observer resolution performed for each message. The event bus is not involved so that its round trip does not hide the cost of the
+ * notification itself. Not executed as part of the test suite, see the <code>benchmark</code> profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObserverDispatchBenchmark {
+
+    // TEST_NOOP has no injected parameter, TEST_DEP injects a @Dependent bean
+    @Param({ VertxObservers.TEST_NOOP, VertxObservers.TEST_DEP })
+    String address;
+
+    private Vertx vertx;
+
+    private BeanManager beanManager;
+
+    private VertxConsumer qualifier;
+
+    private ObserverInvoker<VertxEvent> invoker;
+
+    private VertxEvent event;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        vertx = Vertx.vertx();
+        WeldVerticle weldVerticle = new WeldVerticle();
+        CountDownLatch deployed = new CountDownLatch(1);
+        vertx.deployVerticle(weldVerticle, r -> deployed.countDown());
+        if (!deployed.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("WeldVerticle not deployed");
+        }
+        beanManager = weldVerticle.container().getBeanManager();
+        qualifier = VertxConsumer.Literal.of(address);
+        for (ConsumerInfo consumer : beanManager.getExtension(VertxExtension.class).getConsumers()) {
+            if (consumer.getAddress().equals(address)) {
+                invoker = ObserverInvoker.of(beanManager, consumer);
+            }
+        }
+        event = new BenchmarkEvent(address);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        vertx.close();
+    }
+
+    @Benchmark
+    public void fireEvent() {
+        beanManager.fireEvent(event, qualifier);
+    }
+
+    @Benchmark
+    public void observerInvoker() {
+        invoker.notify(event);
+    }
+
+    static class BenchmarkEvent implements VertxEvent {
+
+        private final String address;
+
+        private Object reply;
+
+        BenchmarkEvent(String address) {
+            this.address = address;
+        }
+
+        @Override
+        public String getAddress() {
+            return address;
+        }
+
+        @Override
+        public MultiMap getHeaders() {
+            return null;
+        }
+
+        @Override
+        public Object getMessageBody() {
+            return null;
+        }
+
+        @Override
+        public <T> T getMessageBody(Class<T> type) {
+            return null;
+        }
+
+        @Override
+        public String getReplyAddress() {
+            return address;
+        }
+
+        @Override
+        public void setReply(Object reply) {
+            this.reply = reply;
+        }
+
+        @Override
+        public void fail(int code, String message) {
+        }
+
+        @Override
+        public CompletableFuture<Object> replyLater() {
+            return null;
+        }
+
+        @Override
+        public VertxMessage messageTo(String address) {
+            return null;
+        }
+
+    }
+
+}
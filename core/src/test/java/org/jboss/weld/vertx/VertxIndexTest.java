@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * The index is generated by {@link VertxIndexProcessor} when the test sources are compiled.
+ *
+ * @author Martin Kouba
+ */
+@RunWith(VertxUnitRunner.class)
+public class VertxIndexTest {
+
+    private Vertx vertx;
+
+    @Before
+    public void init(TestContext context) {
+        vertx = Vertx.vertx();
+        vertx.deployVerticle(new WeldVerticle(), new DeploymentOptions().setConfig(new JsonObject().put(WeldVerticle.INDEX_CONFIG_KEY, true)),
+                context.asyncAssertSuccess());
+        VertxObservers.SYNCHRONIZER.clear();
+    }
+
+    @After
+    public void close(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    private URL beansXml(String content) throws IOException {
+        File file = File.createTempFile("beans", ".xml");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file.toURI().toURL();
+    }
+
+    @Test
+    public void testIndex() {
+        VertxIndex index = VertxIndex.load(getClass().getClassLoader());
+        assertFalse(index.isEmpty());
+        assertTrue(index.getBeanClasses().contains(VertxObservers.class.getName()));
+        assertTrue(index.getBeanClasses().contains(CoolService.class.getName()));
+        assertFalse(index.getBeanClasses().contains(VertxIndexTest.class.getName()));
+        // The test classes are indexed
+        assertTrue(index.getUnindexedBeanArchives(getClass().getClassLoader()).isEmpty());
+    }
+
+    @Test
+    public void testIncompatibleBeansXml() throws IOException {
+        // The test archive is compatible
+        assertTrue(VertxIndex.load(getClass().getClassLoader()).getIncompatibleBeanArchives(getClass().getClassLoader()).isEmpty());
+        String header = "<beans xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\" version=\"1.1\" ";
+        assertTrue(VertxIndex.isAnnotatedOnly(beansXml(header + "bean-discovery-mode=\"annotated\"></beans>")));
+        assertFalse(VertxIndex.isAnnotatedOnly(beansXml("")));
+        assertFalse(VertxIndex.isAnnotatedOnly(beansXml(header + "></beans>")));
+        assertFalse(VertxIndex.isAnnotatedOnly(beansXml(header + "bean-discovery-mode=\"all\"></beans>")));
+        assertFalse(VertxIndex
+                .isAnnotatedOnly(beansXml(header + "bean-discovery-mode=\"annotated\"><interceptors><class>org.acme.Foo</class></interceptors></beans>")));
+    }
+
+    @Test
+    public void testIndexedDiscovery() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_ECHO, "hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        assertEquals("hello", VertxObservers.SYNCHRONIZER.poll(WeldVerticleTest.DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+}
@@ -19,16 +19,29 @@ package org.jboss.weld.vertx;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Produces;
 
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
 
 /**
  *
@@ -46,6 +59,50 @@ public class VertxObservers {
     static final String TEST_BUS_NEXT = "test.bus.next";
     static final String TEST_BUS_TIMEOUT = "test.bus.timeout";
     static final String TEST_SLOW_HANDLER = "test.slow.handler";
+    static final String TEST_NON_BLOCKING = "test.non.blocking";
+    static final String TEST_BOUNDED = "test.bounded";
+    static final String TEST_WORKER_POOL = "test.worker.pool";
+    static final String TEST_VIRTUAL_THREAD = "test.virtual.thread";
+    static final String TEST_REPLY_LATER = "test.reply.later";
+    static final String TEST_NOOP = "test.noop";
+    static final String TEST_BATCH = "test.batch";
+
+    static final String TEST_BATCH_LINGER = "test.batch.linger";
+    static final String TEST_OVERFLOW = "test.overflow";
+    static final String TEST_DEADLINE = "test.deadline";
+    static final String TEST_LOCAL_CODEC = "test.local.codec";
+    static final String TEST_TYPED_BODY = "test.typed.body";
+    static final String TEST_PATTERN = "test.pattern.*.created";
+    static final String TEST_PATTERN_SPECIFIC = "test.pattern.acme.*";
+    static final String TEST_PATTERN_EXACT = "test.pattern.exact.created";
+    static final String TEST_PARALLEL = "test.parallel";
+    static final String TEST_LOCAL = "test.local";
+    static final String TEST_INSTANCES = "test.instances";
+    static final String TEST_PARTITIONED = "test.partitioned";
+    static final String TEST_METHOD = "test.method";
+    static final String TEST_METHOD_ASYNC = "test.method.async";
+    static final String TEST_METHOD_TYPED = "test.method.typed";
+    static final String TEST_CLIENT = "test.client";
+    static final String TEST_MESSAGE_HEADERS = "test.message.headers";
+    static final String TEST_MESSAGE_HEADERS_TARGET = "test.message.headers.target";
+    static final String TEST_CONTEXT_SCOPED = "test.context.scoped";
+    static final String TEST_WORKER_THREAD_SCOPED = "test.worker.thread.scoped";
+
+    @Produces
+    static final LocalCodec<Payload> PAYLOAD_CODEC = LocalCodec.of(Payload.class);
+
+    @Produces
+    static final BodyConverter<Payload> PAYLOAD_CONVERTER = body -> new Payload(body.toString());
+
+    static final AtomicInteger BOUNDED_RUNNING = new AtomicInteger();
+    static final AtomicInteger BOUNDED_MAX = new AtomicInteger();
+
+    static final AtomicInteger VIRTUAL_RUNNING = new AtomicInteger();
+    static final AtomicInteger VIRTUAL_MAX = new AtomicInteger();
+
+    static final AtomicBoolean PARALLEL_SLOW_DONE = new AtomicBoolean();
+
+    static final Map<String, List<Integer>> PARTITIONED = new ConcurrentHashMap<>();
 
     public void pingConsumer(@Observes @VertxConsumer(TEST_PING) VertxEvent event) {
         assertEquals(TEST_PING, event.getAddress());
@@ -83,6 +140,14 @@ public class VertxObservers {
         });
     }
 
+    public void consumerMessageHeaders(@Observes @VertxConsumer(TEST_MESSAGE_HEADERS) VertxEvent event) {
+        event.messageTo(TEST_MESSAGE_HEADERS_TARGET).setDeliveryOptions(new DeliveryOptions().addHeader("foo", "bar")).send(event.getMessageBody());
+    }
+
+    public void consumerMessageHeadersTarget(@Observes @VertxConsumer(TEST_MESSAGE_HEADERS_TARGET) VertxEvent event) {
+        SYNCHRONIZER.add(event.getMessageBody() + ":" + event.getHeaders().get("foo"));
+    }
+
     public void consumerNext(@Observes @VertxConsumer(TEST_BUS_NEXT) VertxEvent event) {
         assertEquals(TEST_BUS_NEXT, event.getAddress());
         assertNotNull(event.getReplyAddress());
@@ -105,4 +170,197 @@ public class VertxObservers {
         Thread.sleep(100);
     }
 
+    public void consumerNonBlocking(@Observes @VertxConsumer(value = TEST_NON_BLOCKING, blocking = false) VertxEvent event) {
+        assertEquals(TEST_NON_BLOCKING, event.getAddress());
+        event.setReply(Context.isOnEventLoopThread());
+    }
+
+    public void consumerBounded(@Observes @VertxConsumer(value = TEST_BOUNDED, ordered = false, maxConcurrency = 2) VertxEvent event) throws InterruptedException {
+        int running = BOUNDED_RUNNING.incrementAndGet();
+        BOUNDED_MAX.accumulateAndGet(running, Math::max);
+        Thread.sleep(50);
+        BOUNDED_RUNNING.decrementAndGet();
+        event.setReply(event.getMessageBody());
+    }
+
+    public void consumerWorkerPool(@Observes @VertxConsumer(value = TEST_WORKER_POOL, workerPool = "test", workerPoolSize = 1) VertxEvent event) {
+        event.setReply(Thread.currentThread().getName());
+    }
+
+    public void consumerVirtualThread(@Observes @VertxConsumer(value = TEST_VIRTUAL_THREAD, virtualThread = true) VertxEvent event) throws Exception {
+        int running = VIRTUAL_RUNNING.incrementAndGet();
+        VIRTUAL_MAX.accumulateAndGet(running, Math::max);
+        Thread.sleep(100);
+        VIRTUAL_RUNNING.decrementAndGet();
+        event.setReply(isVirtual(Thread.currentThread()));
+    }
+
+    public void consumerReplyLater(@Observes @VertxConsumer(value = TEST_REPLY_LATER, maxInFlight = 1) VertxEvent event, Vertx vertx) {
+        CompletableFuture<Object> reply = event.replyLater();
+        if ("never".equals(event.getMessageBody())) {
+            return;
+        }
+        vertx.setTimer(10, (id) -> {
+            if ("fail".equals(event.getMessageBody())) {
+                reply.completeExceptionally(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, 20, "Later failure!"));
+            } else {
+                reply.complete(event.getMessageBody());
+            }
+        });
+    }
+
+    public void consumerNoop(@Observes @VertxConsumer(TEST_NOOP) VertxEvent event) {
+    }
+
+    public void consumerBatch(@Observes @VertxConsumer(value = TEST_BATCH, maxBatchSize = 3, maxBatchLinger = 100) VertxBatchEvent batch) {
+        assertEquals(TEST_BATCH, batch.getAddress());
+        for (VertxEvent event : batch.getEvents()) {
+            if ("fail".equals(event.getMessageBody())) {
+                event.fail(30, "Batch failure!");
+            } else {
+                event.setReply(batch.getEvents().size() + ":" + event.getMessageBody());
+            }
+        }
+    }
+
+    public void consumerBatchLinger(
+            @Observes @VertxConsumer(value = TEST_BATCH_LINGER, maxBatchSize = 10, maxBatchLinger = 60000) VertxBatchEvent batch) {
+        for (VertxEvent event : batch.getEvents()) {
+            event.setReply(batch.getEvents().size() + ":" + event.getMessageBody());
+        }
+    }
+
+    public void consumerOverflow(@Observes @VertxConsumer(value = TEST_OVERFLOW, maxInFlight = 1) VertxEvent event, ConsumerMetrics metrics)
+            throws InterruptedException {
+        // Give the second message a chance to be rejected
+        Thread.sleep(500);
+        event.setReply(metrics.getInFlight(TEST_OVERFLOW) + ":" + metrics.getRejected(TEST_OVERFLOW));
+    }
+
+    public void consumerDeadline(@Observes @VertxConsumer(TEST_DEADLINE) VertxEvent event, ConsumerMetrics metrics) {
+        event.setReply(metrics.getExpired(TEST_DEADLINE) + ":" + event.getHeaders().contains(WeldVerticle.DEADLINE_HEADER));
+    }
+
+    public void consumerLocalCodec(@Observes @VertxConsumer(TEST_LOCAL_CODEC) VertxEvent event) {
+        event.setReply(event.getMessageBody());
+    }
+
+    public void consumerTypedBody(@Observes @VertxConsumer(TEST_TYPED_BODY) VertxEvent event) {
+        JsonObject json = event.getMessageBody(JsonObject.class);
+        assertSame(json, event.getMessageBody(JsonObject.class));
+        event.setReply(json.getInteger("amount") + event.getMessageBody(Payload.class).value);
+    }
+
+    public void consumerPattern(@Observes @VertxConsumer(TEST_PATTERN) VertxEvent event) {
+        if (event.getReplyAddress() == null) {
+            SYNCHRONIZER.add("pattern:" + event.getAddress());
+        } else {
+            event.setReply("pattern:" + event.getAddress());
+        }
+    }
+
+    public void consumerPatternExact(@Observes @VertxConsumer(TEST_PATTERN_EXACT) VertxEvent event) {
+        event.setReply("exact:" + event.getAddress());
+    }
+
+    public void consumerPatternSpecific(@Observes @VertxConsumer(TEST_PATTERN_SPECIFIC) VertxEvent event) {
+        event.setReply("specific:" + event.getAddress());
+    }
+
+    public void consumerParallelSlow(@Observes @VertxConsumer(value = TEST_PARALLEL, parallel = true) VertxEvent event) throws InterruptedException {
+        if ("fail".equals(event.getMessageBody())) {
+            event.fail(40, "Parallel failure!");
+            return;
+        }
+        Thread.sleep(500);
+        PARALLEL_SLOW_DONE.set(true);
+        event.setReply("slow");
+    }
+
+    public void consumerParallelReply(@Observes @VertxConsumer(value = TEST_PARALLEL, replyObserver = true) VertxEvent event) throws InterruptedException {
+        if ("fail".equals(event.getMessageBody())) {
+            // Give the other observer a chance to fail first
+            Thread.sleep(500);
+        }
+        event.setReply("reply");
+    }
+
+    public void consumerLocal(@Observes @VertxConsumer(value = TEST_LOCAL, local = true) VertxEvent event) {
+        event.setReply(event.getMessageBody());
+    }
+
+    public void consumerInstances(@Observes @VertxConsumer(value = TEST_INSTANCES, blocking = false, instances = 2) VertxEvent event) {
+        event.setReply(System.identityHashCode(Vertx.currentContext()));
+    }
+
+    public void consumerPartitioned(@Observes @VertxConsumer(value = TEST_PARTITIONED, partitionKey = "orderId", partitions = 2) VertxEvent event)
+            throws InterruptedException {
+        JsonObject body = (JsonObject) event.getMessageBody();
+        // Later messages should not overtake the earlier ones with the same key
+        Thread.sleep(body.getInteger("seq") % 2 == 0 ? 20 : 1);
+        PARTITIONED.computeIfAbsent(body.getString("orderId"), key -> new CopyOnWriteArrayList<>()).add(body.getInteger("seq"));
+        event.setReply(body.getInteger("seq"));
+    }
+
+    @VertxConsumer(TEST_METHOD)
+    String consumerMethod(String body, VertxEvent event) {
+        return event.getAddress() + ":" + body;
+    }
+
+    @VertxConsumer(value = TEST_METHOD_ASYNC, blocking = false)
+    CompletionStage<Object> consumerMethodAsync(String body) {
+        if ("fail".equals(body)) {
+            CompletableFuture<Object> failure = new CompletableFuture<>();
+            failure.completeExceptionally(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, 30, "Async failure!"));
+            return failure;
+        }
+        return CompletableFuture.supplyAsync(() -> body.toUpperCase());
+    }
+
+    public void consumerClient(@Observes @VertxConsumer(value = TEST_CLIENT, blocking = false) VertxEvent event, EchoClient client) {
+        CompletableFuture<Object> reply = event.replyLater();
+        client.echo(event.getMessageBody().toString()).whenComplete((echo, failure) -> {
+            if (failure != null) {
+                reply.completeExceptionally(failure);
+            } else {
+                reply.complete(echo);
+            }
+        });
+    }
+
+    public void consumerContextScoped(@Observes @VertxConsumer(value = TEST_CONTEXT_SCOPED, blocking = false, instances = 2) VertxEvent event,
+            ContextCounter counter) {
+        event.setReply(counter.increment());
+    }
+
+    public void consumerWorkerThreadScoped(
+            @Observes @VertxConsumer(value = TEST_WORKER_THREAD_SCOPED, workerPool = "scoped", workerPoolSize = 1) VertxEvent event, ThreadParser parser) {
+        event.setReply(parser.parse(event.getMessageBody().toString()));
+    }
+
+    static class Payload {
+
+        final String value;
+
+        Payload() {
+            this(null);
+        }
+
+        Payload(String value) {
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * <code>Thread.isVirtual()</code> is only available on Java 21 and newer.
+     */
+    static boolean isVirtual(Thread thread) throws Exception {
+        try {
+            return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
 }
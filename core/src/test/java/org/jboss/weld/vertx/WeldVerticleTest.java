@@ -19,7 +19,16 @@ package org.jboss.weld.vertx;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
@@ -27,9 +36,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
 
@@ -42,12 +55,17 @@ public class WeldVerticleTest {
 
     static final long DEFAULT_TIMEOUT = 5000;
 
+    static final String TEST_METRICS = "test.metrics";
+
     private Vertx vertx;
 
+    private String deploymentId;
+
     @Before
     public void init(TestContext context) {
         vertx = Vertx.vertx();
-        vertx.deployVerticle(new WeldVerticle(), context.asyncAssertSuccess());
+        vertx.deployVerticle(new WeldVerticle(), new DeploymentOptions().setConfig(new JsonObject().put(WeldVerticle.METRICS_ADDRESS_CONFIG_KEY, TEST_METRICS)),
+                context.asyncAssertSuccess(id -> deploymentId = id));
         vertx.createHttpServer().requestHandler(request -> {
             request.response().end("Hello world");
         }).listen(8080, context.asyncAssertSuccess());
@@ -128,11 +146,484 @@ public class WeldVerticleTest {
         assertEquals("huhu", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
     }
 
+    @Test
+    public void testConsumerEventBusHeaders() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_MESSAGE_HEADERS, "hello");
+        // cdi observer sends a message with a header to TEST_MESSAGE_HEADERS_TARGET
+        assertEquals("hello:bar", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
     @Test
     public void testConsumerEventBusTimeout() throws InterruptedException {
         vertx.eventBus().send(VertxObservers.TEST_BUS_TIMEOUT, "time out!");
         assertEquals("timeout", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
     }
 
+    @Test
+    public void testNonBlockingConsumer() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_NON_BLOCKING, "hello", (r) -> {
+            if (r.succeeded()) {
+                VertxObservers.SYNCHRONIZER.add(r.result().body());
+            }
+        });
+        assertEquals(Boolean.TRUE, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testBoundedConsumer() throws InterruptedException {
+        for (int i = 0; i < 6; i++) {
+            vertx.eventBus().send(VertxObservers.TEST_BOUNDED, i, (r) -> {
+                if (r.succeeded()) {
+                    VertxObservers.SYNCHRONIZER.add(r.result().body());
+                }
+            });
+        }
+        for (int i = 0; i < 6; i++) {
+            assertNotNull(VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(2, VertxObservers.BOUNDED_MAX.get());
+    }
+
+    @Test
+    public void testWorkerPoolConsumer() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_WORKER_POOL, "hello", (r) -> {
+            if (r.succeeded()) {
+                VertxObservers.SYNCHRONIZER.add(r.result().body());
+            }
+        });
+        assertEquals("weld-vertx-worker-test-0", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testVirtualThreadConsumer() throws InterruptedException {
+        // Falls back to the default worker pool on older runtimes
+        boolean virtualThreadsSupported;
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            virtualThreadsSupported = true;
+        } catch (NoSuchMethodException e) {
+            virtualThreadsSupported = false;
+        }
+        for (int i = 0; i < 4; i++) {
+            vertx.eventBus().send(VertxObservers.TEST_VIRTUAL_THREAD, i, (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+            });
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(virtualThreadsSupported, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        // Virtual thread consumers are not ordered by default, the fallback keeps the order
+        assertEquals(virtualThreadsSupported, VertxObservers.VIRTUAL_MAX.get() > 1);
+    }
+
+    @Test
+    public void testReplyLater() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_REPLY_LATER, "hello", (r) -> {
+            if (r.succeeded()) {
+                VertxObservers.SYNCHRONIZER.add(r.result().body());
+            }
+        });
+        assertEquals("hello", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        vertx.eventBus().send(VertxObservers.TEST_REPLY_LATER, "fail", (r) -> {
+            if (r.failed()) {
+                VertxObservers.SYNCHRONIZER.add(r.cause());
+            }
+        });
+        ReplyException replyException = (ReplyException) VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertNotNull(replyException);
+        assertEquals(20, replyException.failureCode());
+        assertEquals("Later failure!", replyException.getMessage());
+        // The async reply is never completed - the in-flight slot is released once the deadline passes
+        DeliveryOptions deadline = new DeliveryOptions().addHeader(WeldVerticle.DEADLINE_HEADER, Long.toString(System.currentTimeMillis() + 100));
+        vertx.eventBus().send(VertxObservers.TEST_REPLY_LATER, "never", deadline, (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureCode());
+        });
+        assertEquals(WeldVerticle.TIMEOUT_FAILURE_CODE, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        vertx.eventBus().send(VertxObservers.TEST_REPLY_LATER, "hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureCode());
+        });
+        assertEquals("hello", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testBatchConsumer() throws InterruptedException {
+        for (String body : new String[] { "alpha", "fail", "charlie" }) {
+            vertx.eventBus().send(VertxObservers.TEST_BATCH, body, (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureCode());
+            });
+        }
+        Set<Object> replies = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            replies.add(VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("3:alpha", 30, "3:charlie")), replies);
+        // The max linger time elapses
+        vertx.eventBus().send(VertxObservers.TEST_BATCH, "delta", (r) -> {
+            if (r.succeeded()) {
+                VertxObservers.SYNCHRONIZER.add(r.result().body());
+            }
+        });
+        assertEquals("1:delta", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testBatchConsumerUndeploy() throws InterruptedException {
+        for (String body : new String[] { "alpha", "bravo" }) {
+            vertx.eventBus().send(VertxObservers.TEST_BATCH_LINGER, body, (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+            });
+        }
+        vertx.eventBus().send(TEST_METRICS, "", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        Object snapshot = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(snapshot instanceof JsonObject);
+        assertEquals(Integer.valueOf(2), ((JsonObject) snapshot).getJsonObject(VertxObservers.TEST_BATCH_LINGER).getInteger("inFlight"));
+        // The buffered messages are delivered when the verticle is undeployed
+        vertx.undeploy(deploymentId, (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded());
+        });
+        Set<Object> results = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("2:alpha", "2:bravo", Boolean.TRUE)), results);
+    }
+
+    @Test
+    public void testOverflowConsumer() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            vertx.eventBus().send(VertxObservers.TEST_OVERFLOW, "hello", (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureCode());
+            });
+        }
+        assertEquals(WeldVerticle.OVERFLOW_FAILURE_CODE, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals("1:1", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testDeadline() throws InterruptedException {
+        DeliveryOptions expired = new DeliveryOptions().addHeader(WeldVerticle.DEADLINE_HEADER, Long.toString(System.currentTimeMillis() - 1));
+        vertx.eventBus().send(VertxObservers.TEST_DEADLINE, "hello", expired, (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureCode());
+        });
+        assertEquals(WeldVerticle.TIMEOUT_FAILURE_CODE, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        // VertxMessage.send() only sets the deadline header if enabled
+        new WeldVerticle.VertxMessageImpl(VertxObservers.TEST_DEADLINE, vertx.eventBus()).send("hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureCode());
+        });
+        assertEquals("1:false", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        new WeldVerticle.VertxMessageImpl(VertxObservers.TEST_DEADLINE, vertx.eventBus()).setDeadline(true).send("hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureCode());
+        });
+        assertEquals("1:true", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testMetrics() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_ECHO, "hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        assertEquals("hello", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        vertx.eventBus().send(TEST_METRICS, "", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        Object snapshot = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(snapshot instanceof JsonObject);
+        JsonObject echo = ((JsonObject) snapshot).getJsonObject(VertxObservers.TEST_ECHO);
+        assertNotNull(echo);
+        assertEquals(Integer.valueOf(0), echo.getInteger("inFlight"));
+        assertEquals(Long.valueOf(1), echo.getJsonObject("queueWait").getLong("count"));
+        assertEquals(Long.valueOf(1), echo.getJsonObject("execution").getLong("count"));
+        assertEquals(Long.valueOf(1), echo.getJsonObject("reply").getLong("count"));
+        assertTrue(echo.getJsonObject("failures").isEmpty());
+    }
+
+    @Test
+    public void testLocalCodec() throws InterruptedException {
+        VertxObservers.Payload payload = new VertxObservers.Payload();
+        vertx.eventBus().send(VertxObservers.TEST_LOCAL_CODEC, payload, (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        // The body is not serialized
+        assertSame(payload, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testCodecsRegisteredByMultipleInstances() throws InterruptedException {
+        int deployments = vertx.deploymentIDs().size();
+        // Each instance has its own container declaring the same codec bean, the codec is also registered by the verticle deployed in init()
+        vertx.deployVerticle(WeldVerticle.class.getName(), new DeploymentOptions().setInstances(2), (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result() : r.cause());
+        });
+        Object deploymentId = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(String.valueOf(deploymentId), deploymentId instanceof String);
+        vertx.undeploy(deploymentId.toString(), (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded());
+        });
+        assertEquals(Boolean.TRUE, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        // The child verticles providing the contexts for additional consumer instances are undeployed too
+        assertEquals(deployments, vertx.deploymentIDs().size());
+        // The codec is still registered for the first deployment
+        VertxObservers.Payload payload = new VertxObservers.Payload();
+        vertx.eventBus().send(VertxObservers.TEST_LOCAL_CODEC, payload, (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        assertSame(payload, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testTypedBody() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_TYPED_BODY, "{\"amount\":10}", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        assertEquals("10{\"amount\":10}", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testPatternConsumer() throws InterruptedException {
+        String[] addresses = { "test.pattern.foo.created", "test.pattern.acme.created", "test.pattern.foo.deleted" };
+        Object[] expected = { "pattern:test.pattern.foo.created", "specific:test.pattern.acme.created", ReplyFailure.NO_HANDLERS };
+        for (int i = 0; i < addresses.length; i++) {
+            vertx.eventBus().send(addresses[i], "hello", (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureType());
+            });
+            assertEquals(expected[i], VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void testPatternConsumerWithRegularConsumer() throws InterruptedException {
+        String address = "test.pattern.regular.created";
+        vertx.eventBus().consumer(address, m -> {
+            if (m.replyAddress() == null) {
+                VertxObservers.SYNCHRONIZER.add("regular:" + address);
+            } else {
+                m.reply("regular");
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            vertx.eventBus().send(address, "hello", (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+            });
+            // Point-to-point messages are only delivered to the pattern consumer
+            assertEquals("pattern:" + address, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        // Published messages are delivered to both
+        vertx.eventBus().publish(address, "hello");
+        Set<Object> received = new HashSet<>();
+        for (int i = 0; i < 2; i++) {
+            received.add(VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("regular:" + address, "pattern:" + address)), received);
+        // The regular consumers of the container are never routed
+        for (int i = 0; i < 3; i++) {
+            vertx.eventBus().send(VertxObservers.TEST_PATTERN_EXACT, "hello", (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+            });
+            assertEquals("exact:" + VertxObservers.TEST_PATTERN_EXACT, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void testParallelConsumer() throws InterruptedException {
+        VertxObservers.PARALLEL_SLOW_DONE.set(false);
+        vertx.eventBus().send(VertxObservers.TEST_PARALLEL, "hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() + ":" + VertxObservers.PARALLEL_SLOW_DONE.get() : r.cause());
+        });
+        // The reply observer completes the message without waiting for the slow one
+        assertEquals("reply:false", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        // But the message is still in flight until the slow observer completes
+        vertx.eventBus().send(TEST_METRICS, "", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        Object snapshot = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(snapshot instanceof JsonObject);
+        JsonObject parallel = ((JsonObject) snapshot).getJsonObject(VertxObservers.TEST_PARALLEL);
+        assertEquals(Integer.valueOf(1), parallel.getInteger("inFlight"));
+        // The reply latency is recorded when the reply is sent
+        assertEquals(Long.valueOf(1), parallel.getJsonObject("reply").getLong("count"));
+        vertx.eventBus().send(VertxObservers.TEST_PARALLEL, "fail", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : ((ReplyException) r.cause()).failureCode());
+        });
+        assertEquals(40, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        // Wait until all the observers complete
+        long start = System.currentTimeMillis();
+        do {
+            Thread.sleep(50);
+            vertx.eventBus().send(TEST_METRICS, "", (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+            });
+            parallel = ((JsonObject) VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS)).getJsonObject(VertxObservers.TEST_PARALLEL);
+        } while (parallel.getInteger("inFlight") > 0 && System.currentTimeMillis() - start < DEFAULT_TIMEOUT);
+        assertEquals(Integer.valueOf(0), parallel.getInteger("inFlight"));
+        // The queue wait and execution time are recorded once per message, not once per observer
+        assertEquals(Long.valueOf(2), parallel.getJsonObject("queueWait").getLong("count"));
+        assertEquals(Long.valueOf(2), parallel.getJsonObject("execution").getLong("count"));
+    }
+
+    @Test
+    public void testLocalConsumer() {
+        // The event bus is not clustered - just verify the kind of registration
+        List<String> registrations = new ArrayList<>();
+        EventBus eventBus = (EventBus) Proxy.newProxyInstance(EventBus.class.getClassLoader(), new Class<?>[] { EventBus.class }, (proxy, method, args) -> {
+            registrations.add(method.getName() + ":" + args[0]);
+            return null;
+        });
+        ConsumerInfo local = new ConsumerInfo(VertxObservers.TEST_LOCAL);
+        local.configure(new JsonObject().put("local", true));
+        WeldVerticle.createMessageConsumer(eventBus, local);
+        // A consumer is only local if all the observers declare it
+        ConsumerInfo mixed = new ConsumerInfo(VertxObservers.TEST_LOCAL);
+        mixed.merge(VertxConsumer.Literal.of(VertxObservers.TEST_LOCAL), false);
+        WeldVerticle.createMessageConsumer(eventBus, mixed);
+        assertEquals(Arrays.asList("localConsumer:" + VertxObservers.TEST_LOCAL, "consumer:" + VertxObservers.TEST_LOCAL), registrations);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPartitionKeyWithMultipleInstances() {
+        ConsumerInfo partitioned = new ConsumerInfo(VertxObservers.TEST_PARTITIONED);
+        partitioned.configure(new JsonObject().put("partitionKey", "orderId").put("instances", 2));
+    }
+
+    @Test
+    public void testConsumerInstances() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            vertx.eventBus().send(VertxObservers.TEST_INSTANCES, "hello", (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+            });
+        }
+        Set<Object> contexts = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            contexts.add(VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        // The messages are distributed among the consumer instances in a round-robin fashion
+        assertEquals(2, contexts.size());
+    }
+
+    @Test
+    public void testManyConsumerRegistrations() throws InterruptedException {
+        int deployments = vertx.deploymentIDs().size();
+        // 40 registrations for a single address and 39 child verticles, together with the other consumers well over 32 futures are awaited
+        JsonObject config = new JsonObject().put(WeldVerticle.CONSUMERS_CONFIG_KEY,
+                new JsonObject().put(VertxObservers.TEST_INSTANCES, new JsonObject().put("instances", 40)));
+        vertx.deployVerticle(new WeldVerticle(), new DeploymentOptions().setConfig(config), (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result() : r.cause());
+        });
+        Object deploymentId = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(String.valueOf(deploymentId), deploymentId instanceof String);
+        assertEquals(deployments + 40, vertx.deploymentIDs().size());
+        vertx.undeploy(deploymentId.toString(), (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded());
+        });
+        assertEquals(Boolean.TRUE, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testConsumerMethod() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_METHOD, "hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        assertEquals("test.method:hello", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testConsumerMethodTypedBean() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_METHOD_TYPED, "hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        assertEquals("typed:hello", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testConsumerMethodCompletionStage() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_METHOD_ASYNC, "hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        assertEquals("HELLO", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        vertx.eventBus().send(VertxObservers.TEST_METHOD_ASYNC, "fail", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        Object failure = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(failure instanceof ReplyException);
+        assertEquals(30, ((ReplyException) failure).failureCode());
+    }
+
+    @Test
+    public void testClient() throws InterruptedException {
+        vertx.eventBus().send(VertxObservers.TEST_CLIENT, "hello", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        assertEquals("hello", VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        vertx.eventBus().send(VertxObservers.TEST_CLIENT, "fail", (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+        });
+        Object failure = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(failure instanceof ReplyException);
+        assertEquals(10, ((ReplyException) failure).failureCode());
+    }
+
+    @Test
+    public void testContextScoped() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            vertx.eventBus().send(VertxObservers.TEST_CONTEXT_SCOPED, "hello", (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+            });
+        }
+        Set<Object> ids = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            Object reply = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+            assertTrue(reply instanceof String);
+            ids.add(reply.toString().substring(0, reply.toString().indexOf(':')));
+        }
+        // Each consumer instance is bound to a separate event loop context
+        assertEquals(2, ids.size());
+        ContextCounter.DESTROYED.set(0);
+        vertx.undeploy(deploymentId, (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded());
+        });
+        assertEquals(Boolean.TRUE, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        // The instances of both contexts are destroyed when the container is shut down
+        assertEquals(2, ContextCounter.DESTROYED.get());
+    }
+
+    @Test
+    public void testWorkerThreadScoped() throws InterruptedException {
+        for (int i = 0; i < 2; i++) {
+            vertx.eventBus().send(VertxObservers.TEST_WORKER_THREAD_SCOPED, "hello", (r) -> {
+                VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+            });
+        }
+        Object first = VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(first instanceof String);
+        // The pool has a single thread - the instance is reused
+        assertEquals(first, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        ThreadParser.DESTROYED.set(0);
+        vertx.undeploy(deploymentId, (r) -> {
+            VertxObservers.SYNCHRONIZER.add(r.succeeded());
+        });
+        assertEquals(Boolean.TRUE, VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        // The instance is destroyed when the container is shut down
+        assertEquals(1, ThreadParser.DESTROYED.get());
+    }
+
+    @Test
+    public void testPartitionedConsumer() throws InterruptedException {
+        String[] orders = { "order1", "order2", "order3" };
+        for (int seq = 0; seq < 5; seq++) {
+            for (String order : orders) {
+                vertx.eventBus().send(VertxObservers.TEST_PARTITIONED, new JsonObject().put("orderId", order).put("seq", seq), (r) -> {
+                    VertxObservers.SYNCHRONIZER.add(r.succeeded() ? r.result().body() : r.cause());
+                });
+            }
+        }
+        for (int i = 0; i < 15; i++) {
+            assertNotNull(VertxObservers.SYNCHRONIZER.poll(DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        for (String order : orders) {
+            // The messages with the same key are processed in order
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4), VertxObservers.PARTITIONED.get(order));
+        }
+    }
 
 }
@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.weld.vertx.container;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.weld.vertx.WeldVerticle;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ *
+ * @author Martin Kouba
+ */
+@RunWith(VertxUnitRunner.class)
+public class SharedContainerTest {
+
+    static final int INSTANCES = 3;
+
+    static final int MESSAGES = 30;
+
+    private Vertx vertx;
+
+    @Rule
+    public Timeout globalTimeout = Timeout.millis(5000);
+
+    @Before
+    public void init(TestContext context) {
+        CountingService.CREATED.set(0);
+        vertx = Vertx.vertx();
+        vertx.deployVerticle(WeldVerticle.class.getName(),
+                new DeploymentOptions().setInstances(INSTANCES).setConfig(new JsonObject().put(WeldVerticle.SHARED_CONTAINER_CONFIG_KEY, true)),
+                context.asyncAssertSuccess());
+    }
+
+    @After
+    public void close(TestContext context) {
+        vertx.close(context.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testSharedContainer(TestContext context) {
+        Async async = context.async();
+        Set<Object> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger replies = new AtomicInteger();
+        for (int i = 0; i < MESSAGES; i++) {
+            vertx.eventBus().send(SharedObservers.TEST_SHARED, "hello", r -> {
+                context.assertTrue(r.succeeded());
+                threads.add(r.result().body());
+                if (replies.incrementAndGet() == MESSAGES) {
+                    // One application scoped instance but the messages are delivered on multiple event loops
+                    context.assertEquals(1, CountingService.CREATED.get());
+                    context.assertTrue(threads.size() > 1, threads.toString());
+                    async.complete();
+                }
+            });
+        }
+    }
+
+}
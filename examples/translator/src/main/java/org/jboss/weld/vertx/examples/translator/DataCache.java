@@ -22,11 +22,9 @@ import static org.jboss.weld.vertx.examples.translator.Addresses.REQUEST_DATA;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
@@ -36,6 +34,7 @@ import org.jboss.weld.vertx.VertxConsumer;
 import org.jboss.weld.vertx.VertxEvent;
 
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
@@ -68,26 +67,24 @@ public class DataCache {
     /**
      *
      * @param word
-     * @return a list of matching translations or <code>null</code> if no data available yet
+     * @return a future list of matching translations, completed with <code>null</code> if no data available within 2 seconds
      */
-    List<String> getTranslations(String word) {
+    CompletableFuture<List<String>> getTranslations(String word) {
         List<String> translations = cache.get(word.toLowerCase());
-        if (translations == null) {
-            // No translations available - send request
-            // We use synchronizer to block for 2 seconds
-            final BlockingQueue<List<String>> synchronizer = new LinkedBlockingQueue<>();
-            vertx.eventBus().send(REQUEST_DATA, word, (r) -> {
-                if (r.succeeded()) {
-                    synchronizer.add(putIfAbsent(r.result().body()));
-                }
-            });
-            try {
-                translations = synchronizer.poll(2, TimeUnit.SECONDS);
-            } catch (InterruptedException e) {
+        if (translations != null) {
+            return CompletableFuture.completedFuture(translations);
+        }
+        // No translations available - send request and wait for 2 seconds at most
+        CompletableFuture<List<String>> result = new CompletableFuture<>();
+        vertx.eventBus().send(REQUEST_DATA, word, new DeliveryOptions().setSendTimeout(2000), (r) -> {
+            if (r.succeeded()) {
+                result.complete(putIfAbsent(r.result().body()));
+            } else {
                 LOGGER.warn("No translation data available for {0} right now...", word);
+                result.complete(null);
             }
-        }
-        return translations;
+        });
+        return result;
     }
 
     private List<String> putIfAbsent(Object data) {
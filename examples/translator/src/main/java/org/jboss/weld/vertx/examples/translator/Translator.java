@@ -18,7 +18,9 @@ package org.jboss.weld.vertx.examples.translator;
 
 import static org.jboss.weld.vertx.examples.translator.Addresses.TRANSLATE;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
@@ -52,22 +54,29 @@ public class Translator {
     }
 
     public void translate(@Observes @VertxConsumer(TRANSLATE) VertxEvent event) {
-        String sentence = event.getMessageBody().toString();
+        String sentence = event.getMessageBody(String.class);
         LOGGER.info("Going to translate: " + sentence);
 
-        JsonArray results = new JsonArray();
-        for (String word : parser.parse(sentence)) {
-
-            JsonObject result = new JsonObject();
-            result.put("word", word);
-
-            List<String> translations = cache.getTranslations(word);
-            if (translations != null) {
-                result.put("translations", new JsonArray(translations));
-            }
-            results.add(result);
+        List<String> words = parser.parse(sentence);
+        List<CompletableFuture<List<String>>> translations = new ArrayList<>(words.size());
+        for (String word : words) {
+            translations.add(cache.getTranslations(word));
         }
-        event.setReply(results);
+        // Do not block the worker thread while waiting for the data
+        CompletableFuture<Object> reply = event.replyLater();
+        CompletableFuture.allOf(translations.toArray(new CompletableFuture<?>[translations.size()])).thenRun(() -> {
+            JsonArray results = new JsonArray();
+            for (int i = 0; i < words.size(); i++) {
+                JsonObject result = new JsonObject();
+                result.put("word", words.get(i));
+                List<String> wordTranslations = translations.get(i).join();
+                if (wordTranslations != null) {
+                    result.put("translations", new JsonArray(wordTranslations));
+                }
+                results.add(result);
+            }
+            reply.complete(results);
+        });
     }
 
 }
@@ -35,6 +35,7 @@ import javax.enterprise.inject.spi.ProcessAnnotatedType;
 import javax.enterprise.inject.spi.WithAnnotations;
 
 import org.jboss.weld.util.reflection.HierarchyDiscovery;
+import org.jboss.weld.vertx.VertxIndex;
 
 import io.vertx.core.Handler;
 import io.vertx.core.http.HttpMethod;
@@ -56,6 +57,8 @@ public class RouteExtension implements Extension {
 
     private final List<RouteHandler<?>> handlers = new LinkedList<>();
 
+    private final VertxIndex index = VertxIndex.load(Thread.currentThread().getContextClassLoader());
+
     private BeanManager beanManager;
 
     void findRoutes(@Observes @WithAnnotations(WebRoute.class) ProcessAnnotatedType<?> event, BeanManager beanManager) {
@@ -165,6 +168,10 @@ public class RouteExtension implements Extension {
     }
 
     private boolean isRouteHandler(AnnotatedType<?> annotatedType) {
+        if (index.isRouteHandler(annotatedType.getJavaClass().getName())) {
+            // Verified at build time
+            return true;
+        }
         Set<Type> types = new HierarchyDiscovery(annotatedType.getBaseType()).getTypeClosure();
         for (Type type : types) {
             if (type instanceof ParameterizedType) {